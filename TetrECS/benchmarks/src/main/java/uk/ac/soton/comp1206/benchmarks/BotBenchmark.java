@@ -0,0 +1,79 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.Bitboard;
+import uk.ac.soton.comp1206.game.Bot;
+import uk.ac.soton.comp1206.game.HeadlessGame;
+import uk.ac.soton.comp1206.game.Heuristic;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BotBenchmark times the bot choosing a move on a standard board part way through a game, with one search thread
+ * and with the whole machine. Each search is made by a new bot, so its evaluation cache starts empty: in a game every
+ * move is a new position, and timing the same position again would mostly measure cache hits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dtetrecs.log.level=warn")
+public class BotBenchmark {
+
+    /**
+     * Pieces the bot plays before the position is timed
+     */
+    @Param({"0", "10"})
+    public int played;
+
+    @Param({"1", "0"})
+    public int threads;
+
+    private ForkJoinPool pool;
+
+    private Bot bot;
+
+    private Bitboard board;
+    private Bitboard.Shape[] current;
+    private Bitboard.Shape[] following;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        var game = new HeadlessGame(5, 5, 1206);
+        game.start();
+        new Bot(Heuristic.DEFAULT, pool).playGame(game, played);
+        board = Bitboard.of(game.getGrid());
+        current = Bitboard.Shape.rotations(game.getCurrentPiece());
+        following = Bitboard.Shape.rotations(game.getFollowingPiece());
+    }
+
+    @Setup(Level.Invocation)
+    public void newBot() {
+        bot = new Bot(Heuristic.DEFAULT, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Bot.Move search() {
+        return bot.search(board, current, following);
+    }
+}
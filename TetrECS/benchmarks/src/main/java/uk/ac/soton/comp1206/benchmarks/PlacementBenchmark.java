@@ -0,0 +1,117 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.Bitboard;
+import uk.ac.soton.comp1206.game.Game;
+import uk.ac.soton.comp1206.game.HeadlessGame;
+import uk.ac.soton.comp1206.game.PlacementIndex;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlacementBenchmark times one call to Game.blockClicked on boards of each size, with and without a line clear.
+ * <p>
+ * Before each invocation, outside the timed section, a place the current piece fits is picked at random and, when
+ * clearing, the rest of that row is filled. If the current piece fits nowhere it is swapped for the following
+ * piece, or a new game is started, as it is once the game is over. The piece is then rotated until it fits, so
+ * every timed call makes a placement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dtetrecs.log.level=warn")
+public class PlacementBenchmark {
+
+    @Param({"5", "20", "100"})
+    public int size;
+
+    /**
+     * Whether every move clears a line
+     */
+    @Param({"false", "true"})
+    public boolean clear;
+
+    private final SplittableRandom random = new SplittableRandom(1206);
+
+    private Game game;
+
+    private int x;
+    private int y;
+
+    @Setup(Level.Trial)
+    public void newGame() {
+        game = new HeadlessGame(size, size, random.nextLong());
+        game.start();
+    }
+
+    @Setup(Level.Invocation)
+    public void chooseMove() {
+        if (game.getLives().get() < 0) {
+            newGame();
+        } else if (!game.getGrid().getPlacements().anyPlacement(game.getCurrentPiece())) {
+            if (game.getGrid().getPlacements().anyPlacement(game.getFollowingPiece())) {
+                game.swapCurrentPiece();
+            } else {
+                newGame();
+            }
+        }
+        var index = game.getGrid().getPlacements();
+        while (!index.anyPlacement(PlacementIndex.shapeId(game.getCurrentPiece()))) {
+            game.rotateCurrentPiece(1);
+        }
+        int id = PlacementIndex.shapeId(game.getCurrentPiece());
+
+        //Pick one of the places the piece fits, evenly
+        int seen = 0;
+        int chosen = -1;
+        for (int i = 0; i < size * size; i++) {
+            if (index.canPlay(id, i % size, i / size) && random.nextInt(++seen) == 0) {
+                chosen = i;
+            }
+        }
+        if (chosen < 0) {
+            throw new IllegalStateException("No place for the current piece");
+        }
+        x = chosen % size;
+        y = chosen / size;
+        if (clear) {
+            fillRow();
+        }
+    }
+
+    @Benchmark
+    public void blockClicked() {
+        game.blockClicked(x, y);
+    }
+
+    /**
+     * Fills every cell of the chosen row the piece will not cover
+     */
+    private void fillRow() {
+        var grid = game.getGrid();
+        var shape = Bitboard.Shape.of(game.getCurrentPiece());
+        for (int col = 0; col < grid.getCols(); col++) {
+            boolean covered = false;
+            for (int i = 0; i < shape.size(); i++) {
+                covered |= shape.dy()[i] == 0 && x + shape.dx()[i] == col;
+            }
+            if (!covered && grid.get(col, y) == 0) {
+                grid.set(col, y, 1);
+            }
+        }
+    }
+}
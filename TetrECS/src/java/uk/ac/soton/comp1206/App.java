@@ -1,11 +1,11 @@
 package uk.ac.soton.comp1206;
 
 import javafx.application.Application;
-import javafx.scene.image.Image;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.ui.ResourceLoader;
 
 /**
  * JavaFX Application class
@@ -45,7 +45,7 @@ public class App extends Application {
     public void start(Stage stage) {
         instance = this;
         this.stage = stage;
-        stage.getIcons().add(new Image(App.class.getResource("/images/logo2.png").toExternalForm()));
+        stage.getIcons().add(ResourceLoader.image("logo2.png"));
 
         //Open game window
         openGame();
@@ -11,6 +11,8 @@ import javafx.scene.paint.Color;
 import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.metrics.Histogram;
+import uk.ac.soton.comp1206.metrics.Metrics;
 
 
 /**
@@ -26,6 +28,8 @@ public class GameBlock extends Canvas {
 
     private static final Logger logger = LogManager.getLogger(GameBlock.class);
 
+    private static final Histogram paintTime = Metrics.histogram("block.paint");
+
     /**
      * The set of colours for different pieces
      */
@@ -48,9 +52,19 @@ public class GameBlock extends Canvas {
             Color.rgb(180, 2, 245, 1)
     };
 
+    /**
+     * Smallest block, in pixels, drawn with bevels. Smaller blocks on large boards are drawn flat
+     */
+    private static final double DETAIL_SIZE = 16;
+
     private final double width;
     private final double height;
 
+    /**
+     * Whether the block is big enough for bevels to show
+     */
+    private final boolean detailed;
+
     /**
      * The column this block exists as in the grid
      */
@@ -92,6 +106,7 @@ public class GameBlock extends Canvas {
         this.height = height;
         this.x = x;
         this.y = y;
+        this.detailed = Math.min(width, height) >= DETAIL_SIZE;
 
         //A canvas needs a fixed width and height
         setWidth(width);
@@ -135,6 +150,7 @@ public class GameBlock extends Canvas {
      * Handle painting of the block canvas
      */
     public void paint() {
+        long start = System.nanoTime();
         //If the block is empty, paint as empty
         if (value.get() == 0) {
             paintEmpty();
@@ -142,6 +158,7 @@ public class GameBlock extends Canvas {
             //If the block is not empty, paint with the colour represented by the value
             paintColor(COLOURS[value.get()]);
         }
+        paintTime.recordSince(start);
     }
 
     /**
@@ -157,9 +174,11 @@ public class GameBlock extends Canvas {
         gc.setFill(Color.rgb(75, 0, 130, 0.4));
         gc.fillRect(0, 0, width, height);
 
-        //Border
-        gc.setStroke(Color.BLACK);
-        gc.strokeRect(0, 0, width, height);
+        //Border, lost on tiny blocks
+        if (detailed) {
+            gc.setStroke(Color.BLACK);
+            gc.strokeRect(0, 0, width, height);
+        }
     }
 
     /**
@@ -170,6 +189,14 @@ public class GameBlock extends Canvas {
     private void paintColor(Color colour) {
         var gc = getGraphicsContext2D();
 
+        //Tiny blocks are one flat colour, as the bevels would not show
+        if (!detailed) {
+            gc.clearRect(0, 0, width, height);
+            gc.setFill(colour);
+            gc.fillRect(0, 0, width, height);
+            return;
+        }
+
         //Coordinates used to create the block's shape
         double[] x = {0, width, width/1.33 , width/4};
         double[] y = {0, 0, height/4, height/4};
@@ -287,19 +314,54 @@ public class GameBlock extends Canvas {
      * Used for keyboard movement
      */
     public void setHighlight() {
-        logger.info("Highlighting Keyboard Movement");
+        logger.trace("Highlighting Keyboard Movement");
         var gc = getGraphicsContext2D();
         gc.setFill(Color.rgb(255, 255, 255, 0.2));
         gc.fillRect(0, 0, width, height);
     }
 
+    /**
+     * Shades the block with a translucent colour, on top of what is painted
+     * Cleared by the next paint
+     *
+     * @param colour
+     */
+    public void paintOverlay(Color colour) {
+        var gc = getGraphicsContext2D();
+        gc.setFill(colour);
+        gc.fillRect(0, 0, width, height);
+    }
+
+    /**
+     * Outlines the block to show where a hint suggests playing
+     * Cleared by the next paint
+     */
+    public void showHint() {
+        var gc = getGraphicsContext2D();
+        gc.setStroke(Color.GOLD);
+        gc.setLineWidth(3);
+        gc.strokeRect(2, 2, width - 4, height - 4);
+        gc.setLineWidth(1);
+    }
+
     /**
      * Animation for line cleared
      */
     public void fadeOut() {
-        logger.info("Fading Line");
+        logger.trace("Fading Line");
         var gc = getGraphicsContext2D();
 
+        //Growing tiny blocks would cover their neighbours, so they only fade
+        if (!detailed) {
+            FadeTransition fadeTransition = new FadeTransition(Duration.millis(200), gc.getCanvas());
+            fadeTransition.setFromValue(gc.getCanvas().getOpacity());
+            fadeTransition.setToValue(0);
+            fadeTransition.setCycleCount(2);
+            fadeTransition.setAutoReverse(true);
+            fadeTransition.play();
+            return;
+        }
+
         FadeTransition fadeTransition = new FadeTransition(Duration.millis(200));
         fadeTransition.setFromValue(gc.getCanvas().getOpacity());
         fadeTransition.setToValue(0);
@@ -3,12 +3,19 @@ package uk.ac.soton.comp1206.component;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
+import javafx.scene.paint.Color;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.BlockClickedListener;
+import uk.ac.soton.comp1206.game.Bitboard;
+import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.PlacementIndex;
+import uk.ac.soton.comp1206.metrics.FrameMonitor;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.function.Supplier;
 
 /**
  * A GameBoard is a visual component to represent the visual GameBoard.
@@ -61,6 +68,26 @@ public class GameBoard extends GridPane {
 
     public boolean highlighted;
 
+    /**
+     * Preview colours for where a piece would go, where it does not fit, and the lines it would clear
+     */
+    private static final Color GHOST = Color.rgb(255, 255, 255, 0.35);
+    private static final Color BLOCKED = Color.rgb(255, 60, 60, 0.35);
+    private static final Color CLEARING = Color.rgb(255, 215, 0, 0.3);
+
+    /**
+     * Gives the piece to preview, or null for no preview
+     */
+    private Supplier<GamePiece> previewPiece;
+
+    /**
+     * Blocks painted by the current preview, the only ones repainted when it moves
+     */
+    private final ArrayList<GameBlock> previewed = new ArrayList<>();
+
+    private int previewX = -1;
+    private int previewY = -1;
+
     /**
      * Create a new GameBoard, based off a given grid, with a visual width and height.
      *
@@ -119,7 +146,8 @@ public class GameBoard extends GridPane {
         setMaxWidth(width);
         setMaxHeight(height);
 
-        setGridLinesVisible(true);
+        //Grid lines are debug drawing, too costly on large boards
+        setGridLinesVisible(cols * rows <= 100);
 
         blocks = new GameBlock[cols][rows];
 
@@ -136,6 +164,8 @@ public class GameBoard extends GridPane {
                 }
             }
         });
+
+        setOnMouseExited(mouseEvent -> clearPreview());
     }
 
     /**
@@ -163,6 +193,9 @@ public class GameBoard extends GridPane {
         //Add a mouse click handler to the block to trigger GameBoard blockClicked method
         block.setOnMouseClicked((e) -> blockClicked(e, block));
 
+        //Preview the piece under the cursor
+        block.addEventHandler(MouseEvent.MOUSE_ENTERED, e -> preview(x, y));
+
         return block;
     }
 
@@ -182,13 +215,95 @@ public class GameBoard extends GridPane {
      * @param block block clicked on
      */
     private void blockClicked(MouseEvent event, GameBlock block) {
-        logger.info("Block clicked: {}", block);
+        logger.debug("Block clicked: {}", block);
 
         if (blockClickedListener != null && event.getButton() == MouseButton.PRIMARY) {
             blockClickedListener.blockClicked(block);
         }
     }
 
+    /**
+     * Sets the piece to preview under the cursor or keyboard aim
+     *
+     * @param piece gives the current piece
+     */
+    public void setPreviewPiece(Supplier<GamePiece> piece) {
+        this.previewPiece = piece;
+    }
+
+    /**
+     * Shades where the piece would land with its centre on a block, and the lines it would clear.
+     * Validity comes from the grid's placement index and the clears from its row and column counts,
+     * so only the blocks of the old and new preview are touched
+     *
+     * @param x column
+     * @param y row
+     */
+    public void preview(int x, int y) {
+        clearPreview();
+        previewX = x;
+        previewY = y;
+        if (previewPiece == null || previewPiece.get() == null) {
+            return;
+        }
+        var shape = Bitboard.Shape.of(previewPiece.get());
+        int id = PlacementIndex.shapeId(shape);
+        boolean fits = id >= 0 && grid.getPlacements().canPlay(id, x, y);
+
+        if (fits) {
+            var fullRows = new boolean[rows];
+            var fullCols = new boolean[cols];
+            if (grid.predictClears(shape, x, y, fullRows, fullCols) > 0) {
+                for (int bx = 0; bx < cols; bx++) {
+                    for (int by = 0; by < rows; by++) {
+                        if (fullRows[by] || fullCols[bx]) {
+                            shade(blocks[bx][by], CLEARING);
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < shape.size(); i++) {
+            int bx = x + shape.dx()[i];
+            int by = y + shape.dy()[i];
+            if (bx >= 0 && by >= 0 && bx < cols && by < rows) {
+                shade(blocks[bx][by], fits ? GHOST : BLOCKED);
+            }
+        }
+    }
+
+    /**
+     * Shows the preview again where it was, after the piece or grid changed
+     */
+    public void refreshPreview() {
+        if (previewX >= 0) {
+            preview(previewX, previewY);
+        }
+    }
+
+    /**
+     * Removes the preview by repainting only the blocks it shaded
+     */
+    public void clearPreview() {
+        for (GameBlock block : previewed) {
+            block.paint();
+        }
+        previewed.clear();
+        previewX = -1;
+        previewY = -1;
+    }
+
+    /**
+     * Shades a block for the preview
+     *
+     * @param block
+     * @param colour
+     */
+    private void shade(GameBlock block, Color colour) {
+        block.paintOverlay(colour);
+        previewed.add(block);
+    }
+
     /**
      * Returns the blocks in the grid in a form of a array
      *
@@ -204,9 +319,11 @@ public class GameBoard extends GridPane {
      * @param blockCoordinates
      */
     public void fadeOut(HashSet<GameBlockCoordinate> blockCoordinates) {
+        long start = System.nanoTime();
         for (GameBlockCoordinate coordinate : blockCoordinates) {
             getBlock(coordinate.getX(), coordinate.getY()).fadeOut();
         }
+        FrameMonitor.end("GameBoard.fadeOut", start);
     }
 
 }
@@ -0,0 +1,59 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.util.Duration;
+import uk.ac.soton.comp1206.metrics.Metrics;
+
+/**
+ * The MetricsOverlay shows a live report of the game's metrics on top of the current scene.
+ * <p>
+ * It is hidden by default, and only refreshes while it is showing.
+ */
+public class MetricsOverlay extends VBox {
+
+    private final Text report = new Text();
+
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.millis(500), e -> update()));
+
+    /**
+     * Create a new hidden overlay
+     */
+    public MetricsOverlay() {
+        setVisible(false);
+        setMouseTransparent(true);
+        setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+        setStyle("-fx-background-color: rgba(0, 0, 0, 0.7); -fx-padding: 5;");
+
+        report.setFill(Color.WHITE);
+        report.setFont(Font.font("Monospaced", 11));
+        getChildren().add(report);
+
+        refresh.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    /**
+     * Shows or hides the overlay
+     */
+    public void toggle() {
+        setVisible(!isVisible());
+        if (isVisible()) {
+            update();
+            refresh.play();
+        } else {
+            refresh.stop();
+        }
+    }
+
+    /**
+     * Updates the report shown
+     */
+    private void update() {
+        report.setText(Metrics.report());
+    }
+}
@@ -18,7 +18,7 @@ public class PieceBoard extends GameBoard {
      * @param piece
      */
     public void showPiece(GamePiece piece) {
-        logger.info("Showing piece: " + piece.getName());
+        logger.debug("Showing piece: {}", piece.getName());
         int gridX = 0;
         for (int[] line : piece.getBlocks()) {
             int gridY = 0;
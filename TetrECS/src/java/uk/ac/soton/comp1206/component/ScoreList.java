@@ -2,6 +2,7 @@ package uk.ac.soton.comp1206.component;
 
 import javafx.animation.FadeTransition;
 import javafx.beans.property.SimpleListProperty;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
@@ -11,13 +12,37 @@ import javafx.scene.text.Text;
 import javafx.util.Duration;
 import javafx.util.Pair;
 
+import java.util.ArrayList;
+
 public class ScoreList extends VBox {
 
-    public SimpleListProperty<Pair<String, Integer>> scoreList = new SimpleListProperty<>();
+    public final SimpleListProperty<Pair<String, Integer>> scoreList = new SimpleListProperty<>();
+
+    /**
+     * Maximum number of scores shown
+     */
+    protected int maxScores = 10;
+
+    /**
+     * Rows currently shown, reused whenever the scores change
+     */
+    private final ArrayList<HBox> rows = new ArrayList<>();
+
+    /**
+     * Whether the rows have been created and should follow the score list
+     */
+    private boolean showing = false;
 
     public ScoreList() {
         setAlignment(Pos.CENTER);
         setSpacing(5);
+
+        //Only the rows whose name or score changed get updated
+        scoreList.addListener((ListChangeListener<Pair<String, Integer>>) change -> {
+            if (showing) {
+                updateScores();
+            }
+        });
     }
 
     /**
@@ -27,36 +52,11 @@ public class ScoreList extends VBox {
      * @param type
      */
     public void createScores(String type) {
-        int counter = 0;
-
         var title = new Text(type);
         title.getStyleClass().add("smallHiscore");
         getChildren().add(title);
 
-        for (Pair<String, Integer> score : scoreList) {
-            if (counter == 10) {
-                break;
-            }
-
-            Label user;
-            if (score.getKey().length() > 15) {
-                user = new Label(score.getKey().substring(0, 14));
-            } else {
-                user = new Label(score.getKey());
-            }
-            user.getStyleClass().add("scorer");
-
-            var userScore = new Label(score.getValue().toString());
-            userScore.getStyleClass().add("scoreItem");
-
-            HBox scoreBox = new HBox();
-            scoreBox.setAlignment(Pos.CENTER);
-            scoreBox.setSpacing(10);
-            scoreBox.getChildren().addAll(user, userScore);
-            getChildren().add(scoreBox);
-
-            counter++;
-        }
+        createScores();
     }
 
     /**
@@ -64,32 +64,75 @@ public class ScoreList extends VBox {
      * but the difference is there no Label on top
      */
     public void createScores() {
-        int counter = 0;
-
-        for (Pair<String, Integer> score : scoreList) {
-            if (counter == 10) {
-                break;
-            }
+        showing = true;
+        updateScores();
+    }
 
-            Label user;
-            if (score.getKey().length() > 15) {
-                user = new Label(score.getKey().substring(0, 14));
-            } else {
-                user = new Label(score.getKey());
+    /**
+     * Updates the rows to match the score list, creating or removing
+     * rows only when the number of scores shown changes
+     */
+    private void updateScores() {
+        int shown = Math.min(maxScores, scoreList.size());
+
+        for (int i = 0; i < shown; i++) {
+            var score = scoreList.get(i);
+            if (i == rows.size()) {
+                var row = createRow();
+                rows.add(row);
+                getChildren().add(row);
             }
-            user.getStyleClass().add("scorer");
+            var row = rows.get(i);
+            setText((Label) row.getChildren().get(0), name(score.getKey()));
+            setText((Label) row.getChildren().get(1), score.getValue().toString());
+        }
 
-            var userScore = new Label(score.getValue().toString());
-            userScore.getStyleClass().add("scoreItem");
+        while (rows.size() > shown) {
+            getChildren().remove(rows.remove(rows.size() - 1));
+        }
+    }
 
+    /**
+     * Creates an empty row for a username and score
+     *
+     * @return row
+     */
+    private HBox createRow() {
+        var user = new Label();
+        user.getStyleClass().add("scorer");
+
+        var userScore = new Label();
+        userScore.getStyleClass().add("scoreItem");
+
+        HBox scoreBox = new HBox();
+        scoreBox.setAlignment(Pos.CENTER);
+        scoreBox.setSpacing(10);
+        scoreBox.getChildren().addAll(user, userScore);
+        return scoreBox;
+    }
 
-            HBox scoreBox = new HBox();
-            scoreBox.setAlignment(Pos.CENTER);
-            scoreBox.setSpacing(10);
-            scoreBox.getChildren().addAll(user, userScore);
+    /**
+     * Shortens long usernames
+     *
+     * @param name
+     * @return name to show
+     */
+    private static String name(String name) {
+        if (name.length() > 15) {
+            return name.substring(0, 14);
+        }
+        return name;
+    }
 
-            getChildren().add(scoreBox);
-            counter++;
+    /**
+     * Only touches a label if its text changed
+     *
+     * @param label
+     * @param text
+     */
+    private static void setText(Label label, String text) {
+        if (!text.equals(label.getText())) {
+            label.setText(text);
         }
     }
 
@@ -99,7 +142,7 @@ public class ScoreList extends VBox {
      * @param scoreList
      */
     public void setScoreList(SimpleListProperty<Pair<String, Integer>> scoreList) {
-        this.scoreList = scoreList;
+        this.scoreList.bind(scoreList);
     }
 
     /**
@@ -0,0 +1,113 @@
+package uk.ac.soton.comp1206.event;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * A ListenerList holds every listener subscribed to one kind of event.
+ * <p>
+ * The listeners are kept in an array that is copied whenever one is added or removed, and never changed after. Firing
+ * an event loops over the array from get(), so it takes no lock and allocates nothing, even for events with primitive
+ * arguments, and a listener may unsubscribe while an event is being delivered. Subscriptions are rare, so copying is
+ * cheap overall.
+ *
+ * @param <L> listener interface
+ */
+public class ListenerList<L> {
+
+    /**
+     * The listeners and what each was subscribed as, kept together so they always change at once
+     *
+     * @param keys      what each listener was added as, used to remove it
+     * @param listeners the listeners events are delivered to
+     * @param <L>       listener interface
+     */
+    private record Entries<L>(Object[] keys, L[] listeners) {
+    }
+
+    private final IntFunction<L[]> newArray;
+
+    private volatile Entries<L> entries;
+
+    /**
+     * Create an empty list
+     *
+     * @param newArray makes an array of listeners, e.g. {@code NextPieceListener[]::new}
+     */
+    public ListenerList(IntFunction<L[]> newArray) {
+        this.newArray = newArray;
+        this.entries = new Entries<>(new Object[0], newArray.apply(0));
+    }
+
+    /**
+     * Subscribes a listener
+     *
+     * @param listener
+     */
+    public void add(L listener) {
+        add(listener, listener);
+    }
+
+    /**
+     * Subscribes a listener under a different key, e.g. a wrapper that delivers to the key on another thread
+     *
+     * @param key      what remove() is called with
+     * @param listener what events are delivered to
+     */
+    public synchronized void add(Object key, L listener) {
+        var current = entries;
+        int size = current.keys().length;
+        var keys = Arrays.copyOf(current.keys(), size + 1);
+        var listeners = Arrays.copyOf(current.listeners(), size + 1);
+        keys[size] = key;
+        listeners[size] = listener;
+        entries = new Entries<>(keys, listeners);
+    }
+
+    /**
+     * Unsubscribes a listener. Does nothing if it was not subscribed
+     *
+     * @param key the listener, or the key it was added under
+     */
+    public synchronized void remove(Object key) {
+        var current = entries;
+        int size = current.keys().length;
+        for (int i = 0; i < size; i++) {
+            if (current.keys()[i] == key) {
+                var keys = new Object[size - 1];
+                var listeners = newArray.apply(size - 1);
+                System.arraycopy(current.keys(), 0, keys, 0, i);
+                System.arraycopy(current.keys(), i + 1, keys, i, size - i - 1);
+                System.arraycopy(current.listeners(), 0, listeners, 0, i);
+                System.arraycopy(current.listeners(), i + 1, listeners, i, size - i - 1);
+                entries = new Entries<>(keys, listeners);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Unsubscribes every listener
+     */
+    public synchronized void clear() {
+        entries = new Entries<>(new Object[0], newArray.apply(0));
+    }
+
+    /**
+     * Get the listeners subscribed now. The array must not be changed
+     *
+     * @return listeners, in the order they were added
+     */
+    public L[] get() {
+        return entries.listeners();
+    }
+
+    /**
+     * Get the number of listeners
+     *
+     * @return listeners
+     */
+    public int size() {
+        return entries.keys().length;
+    }
+}
@@ -0,0 +1,41 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deals pieces from a shuffled bag holding one of every piece, refilling the bag once it is empty.
+ * <p>
+ * Every piece comes up once per bag, so there are never long droughts or floods of one piece.
+ */
+public class BagPieceGenerator implements PieceGenerator {
+
+    private final int[] bag = new int[GamePiece.PIECES];
+
+    /**
+     * Number of pieces still in the bag
+     */
+    private int remaining = 0;
+
+    /**
+     * Create a new generator with an empty bag
+     */
+    public BagPieceGenerator() {
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = i;
+        }
+    }
+
+    @Override
+    public int nextPiece(SplittableRandom random, int level) {
+        if (remaining == 0) {
+            remaining = bag.length;
+        }
+        //Draw a random piece from those left and swap it behind them
+        int index = random.nextInt(remaining);
+        int piece = bag[index];
+        remaining--;
+        bag[index] = bag[remaining];
+        bag[remaining] = piece;
+        return piece;
+    }
+}
@@ -0,0 +1,357 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+
+/**
+ * A Bitboard is an immutable snapshot of which cells of a grid are filled, one bit per cell.
+ * <p>
+ * It is detached from the Grid's properties, so it can be searched and changed freely on any thread without
+ * touching the live game. Playing a piece returns a new board with any full lines already cleared.
+ */
+public final class Bitboard {
+
+    private final int cols;
+    private final int rows;
+    private final long[] words;
+
+    /**
+     * Zobrist hash of the size and filled cells, the same as Grid.getHash() for the same cells
+     */
+    private long hash;
+
+    /**
+     * Lines cleared by the move that made this board
+     */
+    private final int linesCleared;
+
+    /**
+     * Blocks cleared by the move that made this board
+     */
+    private final int blocksCleared;
+
+    /**
+     * A piece shape as the offsets of its blocks from the piece centre
+     *
+     * @param dx column offsets
+     * @param dy row offsets
+     */
+    public record Shape(int[] dx, int[] dy) {
+
+        /**
+         * Get the shape of a piece as it is currently rotated
+         *
+         * @param piece
+         * @return shape
+         */
+        public static Shape of(GamePiece piece) {
+            return of(piece.getBlocks());
+        }
+
+        /**
+         * Get the shape of a 3x3 block layout, laid out as in Grid.playPiece
+         *
+         * @param blocks
+         * @return shape
+         */
+        static Shape of(int[][] blocks) {
+            int count = 0;
+            for (int[] line : blocks) {
+                for (int value : line) {
+                    if (value != 0) {
+                        count++;
+                    }
+                }
+            }
+            int[] dx = new int[count];
+            int[] dy = new int[count];
+            int i = 0;
+            for (int x = 0; x < blocks.length; x++) {
+                for (int y = 0; y < blocks[x].length; y++) {
+                    if (blocks[x][y] != 0) {
+                        dx[i] = x - 1;
+                        dy[i] = y - 1;
+                        i++;
+                    }
+                }
+            }
+            return new Shape(dx, dy);
+        }
+
+        /**
+         * Get the shapes of a piece after 0, 1, 2 and 3 more clockwise rotations, as GamePiece.rotate does them
+         *
+         * @param piece
+         * @return four shapes, indexed by rotation
+         */
+        public static Shape[] rotations(GamePiece piece) {
+            var shapes = new Shape[4];
+            int[][] blocks = piece.getBlocks();
+            for (int r = 0; r < 4; r++) {
+                shapes[r] = of(blocks);
+                int[][] rotated = new int[3][3];
+                for (int x = 0; x < 3; x++) {
+                    for (int y = 0; y < 3; y++) {
+                        rotated[2 - y][x] = blocks[x][y];
+                    }
+                }
+                blocks = rotated;
+            }
+            return shapes;
+        }
+
+        /**
+         * Get the number of blocks in the shape
+         *
+         * @return blocks
+         */
+        public int size() {
+            return dx.length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Shape shape && Arrays.equals(dx, shape.dx) && Arrays.equals(dy, shape.dy);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(dx) + Arrays.hashCode(dy);
+        }
+    }
+
+    private Bitboard(int cols, int rows, long[] words, long hash, int linesCleared, int blocksCleared) {
+        this.cols = cols;
+        this.rows = rows;
+        this.words = words;
+        this.hash = hash;
+        this.linesCleared = linesCleared;
+        this.blocksCleared = blocksCleared;
+    }
+
+    /**
+     * Create an empty board
+     *
+     * @param cols
+     * @param rows
+     */
+    public Bitboard(int cols, int rows) {
+        this(cols, rows, new long[(cols * rows + 63) / 64], Zobrist.size(cols, rows), 0, 0);
+    }
+
+    /**
+     * Takes a snapshot of a grid. Must be called on the thread that changes the grid
+     *
+     * @param grid
+     * @return snapshot
+     */
+    public static Bitboard of(Grid grid) {
+        var board = new Bitboard(grid.getCols(), grid.getRows());
+        for (int x = 0; x < board.cols; x++) {
+            for (int y = 0; y < board.rows; y++) {
+                if (grid.get(x, y) != 0) {
+                    board.setBit(board.index(x, y));
+                }
+            }
+        }
+        return board;
+    }
+
+    private int index(int x, int y) {
+        return y * cols + x;
+    }
+
+    private void setBit(int index) {
+        if ((words[index >>> 6] & (1L << index)) == 0) {
+            words[index >>> 6] |= 1L << index;
+            hash ^= Zobrist.key(index);
+        }
+    }
+
+    private void clearBit(int index) {
+        if ((words[index >>> 6] & (1L << index)) != 0) {
+            words[index >>> 6] &= ~(1L << index);
+            hash ^= Zobrist.key(index);
+        }
+    }
+
+    /**
+     * Checks if a cell is filled. Cells off the board count as filled
+     *
+     * @param x
+     * @param y
+     * @return true if filled
+     */
+    public boolean get(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows) {
+            return true;
+        }
+        int index = index(x, y);
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks if a shape fits with its centre on a cell
+     *
+     * @param shape
+     * @param x
+     * @param y
+     * @return true if every block lands on an empty cell
+     */
+    public boolean canPlay(Shape shape, int x, int y) {
+        for (int i = 0; i < shape.dx.length; i++) {
+            if (get(x + shape.dx[i], y + shape.dy[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Plays a shape that fits and clears any full rows and columns
+     *
+     * @param shape
+     * @param x
+     * @param y
+     * @return the new board
+     */
+    public Bitboard play(Shape shape, int x, int y) {
+        var board = new Bitboard(cols, rows, words.clone(), hash, 0, 0);
+        for (int i = 0; i < shape.dx.length; i++) {
+            board.setBit(index(x + shape.dx[i], y + shape.dy[i]));
+        }
+        return board.clearLines();
+    }
+
+    /**
+     * Clears every full row and column at once, as Game.afterPiece does
+     *
+     * @return board with the lines cleared
+     */
+    private Bitboard clearLines() {
+        boolean[] fullRows = new boolean[rows];
+        boolean[] fullCols = new boolean[cols];
+        int lines = 0;
+        for (int y = 0; y < rows; y++) {
+            fullRows[y] = true;
+            for (int x = 0; x < cols && fullRows[y]; x++) {
+                fullRows[y] = get(x, y);
+            }
+            if (fullRows[y]) {
+                lines++;
+            }
+        }
+        for (int x = 0; x < cols; x++) {
+            fullCols[x] = true;
+            for (int y = 0; y < rows && fullCols[x]; y++) {
+                fullCols[x] = get(x, y);
+            }
+            if (fullCols[x]) {
+                lines++;
+            }
+        }
+        if (lines == 0) {
+            return this;
+        }
+        int blocks = 0;
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < rows; y++) {
+                if (fullRows[y] || fullCols[x]) {
+                    clearBit(index(x, y));
+                    blocks++;
+                }
+            }
+        }
+        return new Bitboard(cols, rows, words, hash, lines, blocks);
+    }
+
+    /**
+     * Counts the filled cells in a row
+     *
+     * @param y
+     * @return filled cells
+     */
+    public int rowCount(int y) {
+        int count = 0;
+        for (int x = 0; x < cols; x++) {
+            if (get(x, y)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the filled cells in a column
+     *
+     * @param x
+     * @return filled cells
+     */
+    public int colCount(int x) {
+        int count = 0;
+        for (int y = 0; y < rows; y++) {
+            if (get(x, y)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts every filled cell
+     *
+     * @return filled cells
+     */
+    public int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the Zobrist hash of the filled cells
+     *
+     * @return hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Get the lines cleared by the move that made this board
+     *
+     * @return lines
+     */
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    /**
+     * Get the blocks cleared by the move that made this board
+     *
+     * @return blocks
+     */
+    public int getBlocksCleared() {
+        return blocksCleared;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Bitboard board && cols == board.cols && rows == board.rows
+                && Arrays.equals(words, board.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash) * 31 + cols;
+    }
+}
@@ -0,0 +1,364 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Bot plays the game by itself.
+ * <p>
+ * For every way to play the current piece, or the following piece after a swap, in every rotation and position, it
+ * looks one piece further ahead at the best way to play the piece that comes after. Each pair of moves is scored by
+ * a Heuristic, and the first level moves are split across a fork/join pool.
+ * <p>
+ * Evaluating a board looks at every cell, so the work of an exhaustive search grows with the cube of the board's
+ * area. Each search is held to a fixed budget of cell visits: the standard board is searched in full, and on larger
+ * boards the first and follow up moves are spread evenly over the board instead of all being tried.
+ * <p>
+ * The Bot only works on Bitboard snapshots, so searching never touches the live game. Moves are made through the
+ * normal Game methods, so it can play in the ChallengeScene or in a headless game.
+ */
+public class Bot {
+
+    private static final Logger logger = LogManager.getLogger(Bot.class);
+
+    /**
+     * First level moves searched by one task before it stops splitting
+     */
+    private static final int THRESHOLD = 8;
+
+    /**
+     * Cells a search may visit evaluating boards, keeping it to tens of milliseconds on any board
+     */
+    private static final long WORK = 1L << 24;
+
+    /**
+     * A move the bot has chosen
+     *
+     * @param swap     whether to swap pieces first
+     * @param rotation clockwise rotations to make after any swap
+     * @param x        column to play on
+     * @param y        row to play on
+     * @param score    how good the heuristic thinks the move is
+     */
+    public record Move(boolean swap, int rotation, int x, int y, double score) {
+    }
+
+    private final Heuristic heuristic;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Best follow up scores already worked out, by board and piece
+     */
+    private final EvaluationCache cache = new EvaluationCache(1 << 16);
+
+    /**
+     * Create a new bot with the default heuristic
+     */
+    public Bot() {
+        this(Heuristic.DEFAULT);
+    }
+
+    /**
+     * Create a new bot
+     *
+     * @param heuristic how moves are scored
+     */
+    public Bot(Heuristic heuristic) {
+        this(heuristic, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new bot searching on a particular pool
+     *
+     * @param heuristic how moves are scored
+     * @param pool      pool to search on
+     */
+    public Bot(Heuristic heuristic, ForkJoinPool pool) {
+        this.heuristic = heuristic;
+        this.pool = pool;
+    }
+
+    /**
+     * Finds the best move in a game. Must be called on the thread that runs the game
+     *
+     * @param game
+     * @return best move, or null if neither piece can be played
+     */
+    public Move choose(Game game) {
+        if (!game.anyMoveLeft()) {
+            return null;
+        }
+        return search(Bitboard.of(game.getGrid()), Bitboard.Shape.rotations(game.getCurrentPiece()),
+                Bitboard.Shape.rotations(game.getFollowingPiece()), game.getGrid().getPlacements());
+    }
+
+    /**
+     * Finds the best move on a snapshot. Safe to call from any thread
+     *
+     * @param board     the board
+     * @param current   rotations of the current piece
+     * @param following rotations of the following piece
+     * @return best move, or null if neither piece can be played
+     */
+    public Move search(Bitboard board, Bitboard.Shape[] current, Bitboard.Shape[] following) {
+        return search(board, current, following, null);
+    }
+
+    /**
+     * Finds the best move on a snapshot, reading the first moves from the grid's placement index
+     *
+     * @param board     the board
+     * @param current   rotations of the current piece
+     * @param following rotations of the following piece
+     * @param index     placement index of the grid the board was taken from, or null to check the board
+     * @return best move, or null if neither piece can be played
+     */
+    private Move search(Bitboard board, Bitboard.Shape[] current, Bitboard.Shape[] following, PlacementIndex index) {
+        var candidates = new ArrayList<Move>();
+        addMoves(candidates, board, index, current, false);
+        addMoves(candidates, board, index, following, true);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        long evaluations = Math.max(1, WORK / ((long) board.getCols() * board.getRows()));
+        var moves = spread(candidates, (int) Math.max(1, Math.sqrt(evaluations)));
+        //Each first move looks at up to four rotations of the next piece
+        int followUps = (int) Math.max(1, evaluations / moves.size() / 4);
+        return pool.invoke(new SearchTask(board, current, following, moves, followUps, 0, moves.size()));
+    }
+
+    /**
+     * Picks moves evenly spaced through a list
+     *
+     * @param moves
+     * @param limit most moves to keep
+     * @return the moves, or all of them if there are no more than the limit
+     */
+    private static List<Move> spread(List<Move> moves, int limit) {
+        if (moves.size() <= limit) {
+            return moves;
+        }
+        var chosen = new ArrayList<Move>(limit);
+        for (int i = 0; i < limit; i++) {
+            chosen.add(moves.get((int) ((long) i * moves.size() / limit)));
+        }
+        return chosen;
+    }
+
+    /**
+     * Adds every valid placement of a piece, skipping rotations that give the same shape
+     *
+     * @param moves  list to add to
+     * @param board
+     * @param index  placement index, or null
+     * @param shapes rotations of the piece
+     * @param swap   whether the piece needs a swap first
+     */
+    private static void addMoves(List<Move> moves, Bitboard board, PlacementIndex index, Bitboard.Shape[] shapes,
+                                 boolean swap) {
+        for (int r = 0; r < shapes.length; r++) {
+            if (seenBefore(shapes, r)) {
+                continue;
+            }
+            int id = index == null ? -1 : PlacementIndex.shapeId(shapes[r]);
+            if (id >= 0 && !index.anyPlacement(id)) {
+                continue;
+            }
+            for (int x = 0; x < board.getCols(); x++) {
+                for (int y = 0; y < board.getRows(); y++) {
+                    if (id >= 0 ? index.canPlay(id, x, y) : board.canPlay(shapes[r], x, y)) {
+                        moves.add(new Move(swap, r, x, y, 0));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if an earlier rotation already has the same shape
+     *
+     * @param shapes
+     * @param rotation
+     * @return true if this rotation can be skipped
+     */
+    private static boolean seenBefore(Bitboard.Shape[] shapes, int rotation) {
+        for (int r = 0; r < rotation; r++) {
+            if (shapes[r].equals(shapes[rotation])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scores a first level move by the best follow up with the other piece
+     *
+     * @param after     board after the first move
+     * @param next      rotations of the piece that will be played next
+     * @param followUps most placements of each rotation to evaluate
+     * @return score
+     */
+    private double score(Bitboard after, Bitboard.Shape[] next, int followUps) {
+        double best = Double.NEGATIVE_INFINITY;
+        for (int r = 0; r < next.length; r++) {
+            if (!seenBefore(next, r)) {
+                best = Math.max(best, bestPlacement(after, next[r], followUps));
+            }
+        }
+        if (best == Double.NEGATIVE_INFINITY) {
+            best = heuristic.stuck() + heuristic.evaluate(after);
+        }
+        return heuristic.reward(after) + best;
+    }
+
+    /**
+     * Finds the best score for playing a shape anywhere on a board, using the cache when the same board and
+     * shape have been seen before. When the shape fits in more places than the limit, places evenly spaced
+     * through them are evaluated instead. Those scores depend on the limit, so they are never cached
+     *
+     * @param board
+     * @param shape
+     * @param limit most places to evaluate
+     * @return best score, or negative infinity if the shape does not fit
+     */
+    private double bestPlacement(Bitboard board, Bitboard.Shape shape, int limit) {
+        int step = 1;
+        if (limit < board.getCols() * board.getRows()) {
+            int places = 0;
+            for (int x = 0; x < board.getCols(); x++) {
+                for (int y = 0; y < board.getRows(); y++) {
+                    if (board.canPlay(shape, x, y)) {
+                        places++;
+                    }
+                }
+            }
+            step = Math.max(1, (places + limit - 1) / limit);
+        }
+        long key = EvaluationCache.key(board.getHash(), shape);
+        double best = step == 1 ? cache.get(key) : Double.NaN;
+        if (!Double.isNaN(best)) {
+            return best;
+        }
+        best = Double.NEGATIVE_INFINITY;
+        int place = 0;
+        for (int x = 0; x < board.getCols(); x++) {
+            for (int y = 0; y < board.getRows(); y++) {
+                if (board.canPlay(shape, x, y) && place++ % step == 0) {
+                    var end = board.play(shape, x, y);
+                    best = Math.max(best, heuristic.reward(end) + heuristic.evaluate(end));
+                }
+            }
+        }
+        if (step == 1) {
+            cache.put(key, best);
+        }
+        return best;
+    }
+
+    /**
+     * Searches a range of first level moves, splitting it in half until it is small
+     */
+    @SuppressWarnings("serial")
+    private class SearchTask extends RecursiveTask<Move> {
+
+        private final Bitboard board;
+        private final Bitboard.Shape[] current;
+        private final Bitboard.Shape[] following;
+        private final List<Move> moves;
+        private final int followUps;
+        private final int from;
+        private final int to;
+
+        SearchTask(Bitboard board, Bitboard.Shape[] current, Bitboard.Shape[] following, List<Move> moves,
+                   int followUps, int from, int to) {
+            this.board = board;
+            this.current = current;
+            this.following = following;
+            this.moves = moves;
+            this.followUps = followUps;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Move compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                var left = new SearchTask(board, current, following, moves, followUps, from, middle);
+                left.fork();
+                var right = new SearchTask(board, current, following, moves, followUps, middle, to).compute();
+                var leftBest = left.join();
+                return leftBest.score() >= right.score() ? leftBest : right;
+            }
+            Move best = null;
+            for (int i = from; i < to; i++) {
+                var move = moves.get(i);
+                Bitboard.Shape[] shapes = move.swap() ? following : current;
+                //After a swap the old current piece comes next, otherwise the following piece does
+                Bitboard.Shape[] next = move.swap() ? current : following;
+                double score = score(board.play(shapes[move.rotation()], move.x(), move.y()), next, followUps);
+                if (best == null || score > best.score()) {
+                    best = new Move(move.swap(), move.rotation(), move.x(), move.y(), score);
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Makes a move in a game
+     *
+     * @param game
+     * @param move
+     */
+    public static void apply(Game game, Move move) {
+        logger.debug("Bot playing {}", move);
+        if (move.swap()) {
+            game.swapCurrentPiece();
+        }
+        if (move.rotation() > 0) {
+            game.rotateCurrentPiece(move.rotation());
+        }
+        game.blockClicked(move.x(), move.y());
+    }
+
+    /**
+     * Chooses and makes the best move in a game
+     *
+     * @param game
+     * @return false if there was no move to make
+     */
+    public boolean play(Game game) {
+        var move = choose(game);
+        if (move == null) {
+            return false;
+        }
+        apply(game, move);
+        return true;
+    }
+
+    /**
+     * Plays a headless game until it runs out of lives or pieces. When stuck, the timer is run out by hand
+     *
+     * @param game      a started game with no real timer
+     * @param maxPieces most pieces to play
+     * @return pieces played
+     */
+    public int playGame(Game game, int maxPieces) {
+        int pieces = 0;
+        while (pieces < maxPieces && game.getLives().get() >= 0) {
+            if (play(game)) {
+                pieces++;
+            } else {
+                game.gameLoop();
+            }
+        }
+        return pieces;
+    }
+}
@@ -0,0 +1,130 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.metrics.Counter;
+import uk.ac.soton.comp1206.metrics.Metrics;
+
+/**
+ * A bounded, thread safe cache of board evaluations keyed by Zobrist hash, for searches that keep reaching the
+ * same boards.
+ * <p>
+ * Entries live in a fixed table of small sets. A key can only go in its own set, and when the set is full the
+ * CLOCK algorithm picks which entry to replace: each entry has a bit set whenever it is used, and the clock hand
+ * skips over (and clears) used entries until it finds one that has not been used since its last pass. Nothing is
+ * allocated after construction.
+ * <p>
+ * As with any transposition table, two different positions with the same 64 bit key would share an entry. Board
+ * hashes include the board's size and shapes have their own keys, so this needs a chance collision of random 64 bit
+ * keys.
+ */
+public class EvaluationCache {
+
+    private static final Counter hits = Metrics.counter("evalCache.hit");
+
+    private static final Counter misses = Metrics.counter("evalCache.miss");
+
+    /**
+     * Entries in each set
+     */
+    private static final int WAYS = 4;
+
+    private final long[] keys;
+    private final double[] values;
+    private final boolean[] used;
+    private final int[] hands;
+    private final int setMask;
+
+    /**
+     * Sets are locked in stripes, so threads only wait for each other when they touch nearby sets
+     */
+    private final Object[] locks = new Object[64];
+
+    /**
+     * Create a new empty cache
+     *
+     * @param capacity most entries held, rounded up to a power of two
+     */
+    public EvaluationCache(int capacity) {
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS - 1)) << 1;
+        keys = new long[sets * WAYS];
+        values = new double[sets * WAYS];
+        used = new boolean[sets * WAYS];
+        hands = new int[sets];
+        setMask = sets - 1;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Makes the key for a piece played on a board. The piece and its rotation are identified by the shape they
+     * make, since two pieces with the same shape play the same
+     *
+     * @param boardHash Zobrist hash of the board
+     * @param shape     the piece in its rotation, one that a piece can make
+     * @return key, never 0
+     */
+    public static long key(long boardHash, Bitboard.Shape shape) {
+        long key = boardHash ^ Zobrist.shape(PlacementIndex.shapeId(shape));
+        return key == 0 ? 1 : key;
+    }
+
+    /**
+     * Looks up an evaluation
+     *
+     * @param key
+     * @return the value, or NaN if it is not cached
+     */
+    public double get(long key) {
+        int set = set(key);
+        synchronized (lock(set)) {
+            for (int i = set * WAYS; i < set * WAYS + WAYS; i++) {
+                if (keys[i] == key) {
+                    used[i] = true;
+                    hits.increment();
+                    return values[i];
+                }
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    /**
+     * Stores an evaluation, replacing one in the same set if it is full
+     *
+     * @param key
+     * @param value
+     */
+    public void put(long key, double value) {
+        int set = set(key);
+        synchronized (lock(set)) {
+            int first = set * WAYS;
+            for (int i = first; i < first + WAYS; i++) {
+                if (keys[i] == key || keys[i] == 0) {
+                    keys[i] = key;
+                    values[i] = value;
+                    used[i] = true;
+                    return;
+                }
+            }
+            //Sweep the clock hand round the set until it finds an entry not used since its last pass
+            while (used[first + hands[set]]) {
+                used[first + hands[set]] = false;
+                hands[set] = (hands[set] + 1) % WAYS;
+            }
+            int victim = first + hands[set];
+            keys[victim] = key;
+            values[victim] = value;
+            used[victim] = true;
+            hands[set] = (hands[set] + 1) % WAYS;
+        }
+    }
+
+    private int set(long key) {
+        return (int) (key ^ (key >>> 32)) & setMask;
+    }
+
+    private Object lock(int set) {
+        return locks[set & (locks.length - 1)];
+    }
+}
@@ -8,11 +8,16 @@ import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.component.GameBlockCoordinate;
 import uk.ac.soton.comp1206.event.GameLoopListener;
 import uk.ac.soton.comp1206.event.LineClearedListener;
+import uk.ac.soton.comp1206.event.ListenerList;
 import uk.ac.soton.comp1206.event.LivesListener;
 import uk.ac.soton.comp1206.event.NextPieceListener;
+import uk.ac.soton.comp1206.metrics.Counter;
+import uk.ac.soton.comp1206.metrics.Histogram;
+import uk.ac.soton.comp1206.metrics.Metrics;
 
 
 import java.util.*;
+import java.util.concurrent.Executor;
 
 /**
  * The Game class handles the main logic, state and properties of the TetrECS game. Methods to manipulate the game state
@@ -22,6 +27,19 @@ public class Game {
 
     private static final Logger logger = LogManager.getLogger(Game.class);
 
+    private static final Histogram blockClickedTime = Metrics.histogram("game.blockClicked");
+
+    private static final Histogram lineClearTime = Metrics.histogram("game.lineClear");
+
+    private static final Counter linesCleared = Metrics.counter("game.linesCleared");
+
+    private static final Counter piecesPlayed = Metrics.counter("game.piecesPlayed");
+
+    /**
+     * Largest number of rows or columns a board can have
+     */
+    public static final int MAX_SIZE = 100;
+
     /**
      * Number of rows
      */
@@ -37,6 +55,26 @@ public class Game {
      */
     protected final Grid grid;
 
+    /**
+     * Seed of the random number generator, so the game can be played again
+     */
+    protected final long seed;
+
+    /**
+     * The one random number generator for this game. Anything else needing randomness should split it
+     */
+    protected final SplittableRandom random;
+
+    /**
+     * Chooses the pieces to spawn
+     */
+    protected PieceGenerator pieceGenerator = new UniformPieceGenerator();
+
+    /**
+     * Records the game so it can be replayed, or null if it is not being recorded
+     */
+    protected ReplayLog replayLog;
+
     /**
      * Current piece
      */
@@ -68,24 +106,25 @@ public class Game {
     protected SimpleIntegerProperty multiplier = new SimpleIntegerProperty(1);
 
     /**
-     * Next piece listener
+     * Next piece listeners
      */
-    private NextPieceListener nextPieceListener;
+    private final ListenerList<NextPieceListener> nextPieceListeners = new ListenerList<>(NextPieceListener[]::new);
 
     /**
-     * Line cleared listener
+     * Line cleared listeners
      */
-    private LineClearedListener lineClearedListener;
+    private final ListenerList<LineClearedListener> lineClearedListeners =
+            new ListenerList<>(LineClearedListener[]::new);
 
     /**
-     * Game loop listener
+     * Game loop listeners
      */
-    private GameLoopListener gameLoopListener;
+    private final ListenerList<GameLoopListener> gameLoopListeners = new ListenerList<>(GameLoopListener[]::new);
 
     /**
-     * Lives listener
+     * Lives listeners
      */
-    private LivesListener livesListener;
+    private final ListenerList<LivesListener> livesListeners = new ListenerList<>(LivesListener[]::new);
 
     /**
      * Game timer
@@ -97,6 +136,12 @@ public class Game {
      */
     private TimerTask timerTask;
 
+    /**
+     * When the running timer was started, and how long it runs for, in milliseconds
+     */
+    private long timerStarted;
+    private int timerLength;
+
     /**
      * Create a new game with the specified rows and columns. Creates a corresponding grid model.
      *
@@ -104,8 +149,25 @@ public class Game {
      * @param rows number of rows
      */
     public Game(int cols, int rows) {
+        this(cols, rows, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Create a new game with the specified rows and columns, whose pieces are chosen from the given seed
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed random seed
+     */
+    public Game(int cols, int rows, long seed) {
+        if (cols < 3 || rows < 3 || cols > MAX_SIZE || rows > MAX_SIZE) {
+            throw new IllegalArgumentException("Board must be between 3x3 and " + MAX_SIZE + "x" + MAX_SIZE);
+        }
         this.cols = cols;
         this.rows = rows;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.replayLog = new ReplayLog(seed, cols, rows);
 
         //Create a new grid model to represent the game state
         this.grid = new Grid(cols, rows);
@@ -124,6 +186,9 @@ public class Game {
      */
     public void initialiseGame() {
         logger.info("Initialising game");
+        if (replayLog != null) {
+            replayLog.start(pieceGenerator);
+        }
         currentPiece = spawnPiece();
         followingPiece = spawnPiece();
         nextPieceListen();
@@ -131,6 +196,30 @@ public class Game {
         loopListen(getTimerDelay());
     }
 
+    /**
+     * Carry on a saved game instead of starting a new one. The game is not recorded, as the replay would not start
+     * from an empty board
+     *
+     * @param snapshot saved game of the same size
+     */
+    public void resume(GameSnapshot snapshot) {
+        logger.info("Resuming game");
+        replayLog = null;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                grid.set(x, y, snapshot.get(x, y));
+            }
+        }
+        currentPiece = GamePiece.createPiece(snapshot.current(), snapshot.currentRotation());
+        followingPiece = GamePiece.createPiece(snapshot.following(), snapshot.followingRotation());
+        score.set(snapshot.score());
+        level.set(snapshot.level());
+        lives.set(snapshot.lives());
+        multiplier.set(snapshot.multiplier());
+        nextPieceListen();
+        restartTimer(snapshot.timeLeft());
+    }
+
     /**
      * Handle what should happen when a particular block is clicked
      *
@@ -138,20 +227,68 @@ public class Game {
      */
     public void blockClicked(GameBlock gameBlock) {
         //Get the position of this block
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
+        blockClicked(gameBlock.getX(), gameBlock.getY());
+    }
+
+    /**
+     * Handle what should happen when the block at a position is clicked
+     *
+     * @param x column of the block
+     * @param y row of the block
+     */
+    public void blockClicked(int x, int y) {
+        long start = System.nanoTime();
 
         if (grid.canPlayPiece(currentPiece, x, y)) {
+            if (replayLog != null) {
+                replayLog.place(x, y);
+            }
             grid.playPiece(currentPiece, x, y);
-            timer.cancel();
-            timerTask.cancel();
-            setTimer();
-            loopListen(getTimerDelay());
+            piecesPlayed.increment();
+            restartTimer();
             afterPiece();
             nextPiece();
+            checkStuck();
         } else {
-            Multimedia.setAudioPlayer("incorrect.wav");
+            playSound("incorrect.wav");
         }
+        blockClickedTime.recordSince(start);
+    }
+
+    /**
+     * Sets how pieces are chosen. Should be called before the game starts
+     *
+     * @param pieceGenerator
+     */
+    public void setPieceGenerator(PieceGenerator pieceGenerator) {
+        this.pieceGenerator = pieceGenerator;
+    }
+
+    /**
+     * Get the seed this game was started from
+     *
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the game's random number generator
+     *
+     * @return random
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Get the log recording this game
+     *
+     * @return replay log, or null if the game is not being recorded
+     */
+    public ReplayLog getReplayLog() {
+        return replayLog;
     }
 
     /**
@@ -187,16 +324,15 @@ public class Game {
      * @return new piece
      */
     public GamePiece spawnPiece() {
-        logger.info("Spawning Piece");
-        Random random = new Random();
-        return GamePiece.createPiece(random.nextInt(15));
+        logger.debug("Spawning Piece");
+        return GamePiece.createPiece(pieceGenerator.nextPiece(random, level.get()));
     }
 
     /**
      * Spawns next pieces
      */
     public void nextPiece() {
-        logger.info("Getting next piece");
+        logger.debug("Getting next piece");
         currentPiece = followingPiece;
         followingPiece = spawnPiece();
         nextPieceListen();
@@ -208,7 +344,8 @@ public class Game {
      * and the score needs to be updated
      */
     public void afterPiece() {
-        logger.info("Starting Cleanup");
+        logger.debug("Starting Cleanup");
+        long start = System.nanoTime();
         ArrayList<Integer> rows = checkRow();
         ArrayList<Integer> cols = checkCol();
         HashSet<GameBlockCoordinate> coordinates = getCoordinates(cols, rows);
@@ -218,61 +355,49 @@ public class Game {
         lineCleared(coordinates);
 
         for (GameBlockCoordinate gameBlockCoordinate : coordinates) {
-            logger.info("Cleaning");
+            logger.trace("Cleaning {}", gameBlockCoordinate);
             int X = gameBlockCoordinate.getX();
             int Y = gameBlockCoordinate.getY();
             grid.set(X, Y, 0);
         }
+        linesCleared.add(lines);
+        lineClearTime.recordSince(start);
         int oldScore = getScore().get();
         score(lines, blocks);
         int newScore = getScore().get();
 
         if (oldScore != newScore) {
-            Multimedia.setAudioPlayer("lineclear.mp3");
+            playSound("lineclear.mp3");
         }
     }
 
     /**
-     * Checks if any row is filled
+     * Checks if any row is filled, from the grid's row counts
      *
      * @return dirtyRows
      */
     public ArrayList<Integer> checkRow() {
         ArrayList<Integer> dirtyRows = new ArrayList<>();
         for (int r = 0; r < getRows(); r++) {
-            int rowCounter = 0;
-            for (int c = 0; c < getCols(); c++) {
-                if (getGrid().get(c, r) != 0) {
-                    if (rowCounter + 1 == 5) {
-                        logger.info("Adding row to clean: " + r);
-                        dirtyRows.add(r);
-                        rowCounter = 0;
-                    }
-                    rowCounter++;
-                }
+            if (grid.getRowCount(r) == getCols()) {
+                logger.debug("Adding row to clean: {}", r);
+                dirtyRows.add(r);
             }
         }
         return dirtyRows;
     }
 
     /**
-     * Checks if any columns are filled
+     * Checks if any columns are filled, from the grid's column counts
      *
      * @return dirtyCols
      */
     public ArrayList<Integer> checkCol() {
         ArrayList<Integer> dirtyCols = new ArrayList<>();
         for (int c = 0; c < getCols(); c++) {
-            int colCounter = 0;
-            for (int r = 0; r < getRows(); r++) {
-                if (getGrid().get(c, r) != 0) {
-                    if (colCounter + 1 == 5) {
-                        logger.info("Adding col to clean: " + c);
-                        dirtyCols.add(c);
-                        colCounter = 0;
-                    }
-                    colCounter++;
-                }
+            if (grid.getColCount(c) == getRows()) {
+                logger.debug("Adding col to clean: {}", c);
+                dirtyCols.add(c);
             }
         }
         return dirtyCols;
@@ -384,7 +509,7 @@ public class Game {
      * Updates level based on score
      */
     protected void checkLevel() {
-        logger.info("Checking Level");
+        logger.debug("Checking Level");
         level.setValue(Math.floorDiv(getScore().getValue(), 1000));
     }
 
@@ -397,9 +522,9 @@ public class Game {
     public void checkMultiplier(int oldScore) {
         if (score.getValue() != oldScore) {
             multiplier.setValue(getMultiplier().getValue() + 1);
-            logger.info("Multiplier increased to: " + multiplier.getValue());
+            logger.debug("Multiplier increased to: {}", multiplier.getValue());
         } else {
-            logger.info("Resetting Multiplier");
+            logger.debug("Resetting Multiplier");
             multiplier.setValue(1);
         }
     }
@@ -410,7 +535,10 @@ public class Game {
      * @param amount
      */
     public void rotateCurrentPiece(int amount) {
-        Multimedia.setAudioPlayer("rotate.mp3");
+        if (replayLog != null) {
+            replayLog.rotate(amount);
+        }
+        playSound("rotate.mp3");
         currentPiece.rotate(amount);
     }
 
@@ -418,7 +546,10 @@ public class Game {
      * Swaps pieces
      */
     public void swapCurrentPiece() {
-        Multimedia.setAudioPlayer("rotate.mp3");
+        if (replayLog != null) {
+            replayLog.swap();
+        }
+        playSound("rotate.mp3");
         var prevCurrent = currentPiece;
         currentPiece = followingPiece;
         followingPiece = prevCurrent;
@@ -426,30 +557,70 @@ public class Game {
     }
 
     /**
-     * Sets next piece listener
+     * Adds a next piece listener, called on the game's thread
+     *
+     * @param listener
+     */
+    public void addNextPieceListener(NextPieceListener listener) {
+        nextPieceListeners.add(listener);
+    }
+
+    /**
+     * Adds a next piece listener that is called on an executor instead of the game's thread. The pieces may have been
+     * rotated or swapped by the time it runs
      *
      * @param listener
+     * @param executor where to call it
      */
-    public void setNextPieceListener(NextPieceListener listener) {
-        this.nextPieceListener = listener;
+    public void addNextPieceListener(NextPieceListener listener, Executor executor) {
+        nextPieceListeners.add(listener,
+                (current, following) -> executor.execute(() -> listener.nextPiece(current, following)));
+    }
+
+    /**
+     * Removes a next piece listener
+     *
+     * @param listener
+     */
+    public void removeNextPieceListener(NextPieceListener listener) {
+        nextPieceListeners.remove(listener);
     }
 
     /**
      * Shows next pieces on the piece boards
      */
     public void nextPieceListen() {
-        if (nextPieceListener != null) {
-            nextPieceListener.nextPiece(currentPiece, followingPiece);
+        for (var listener : nextPieceListeners.get()) {
+            listener.nextPiece(currentPiece, followingPiece);
         }
     }
 
     /**
-     * Sets line cleared listener
+     * Adds a line cleared listener, called on the game's thread
+     *
+     * @param listener
+     */
+    public void addLineClearedListener(LineClearedListener listener) {
+        lineClearedListeners.add(listener);
+    }
+
+    /**
+     * Adds a line cleared listener that is called on an executor instead of the game's thread
      *
      * @param listener
+     * @param executor where to call it
      */
-    public void setLineClearedListener(LineClearedListener listener) {
-        this.lineClearedListener = listener;
+    public void addLineClearedListener(LineClearedListener listener, Executor executor) {
+        lineClearedListeners.add(listener, coordinates -> executor.execute(() -> listener.lineCleared(coordinates)));
+    }
+
+    /**
+     * Removes a line cleared listener
+     *
+     * @param listener
+     */
+    public void removeLineClearedListener(LineClearedListener listener) {
+        lineClearedListeners.remove(listener);
     }
 
     /**
@@ -459,35 +630,74 @@ public class Game {
      * @param coordinates
      */
     public void lineCleared(HashSet<GameBlockCoordinate> coordinates) {
-        if (lineClearedListener != null) {
-            lineClearedListener.lineCleared(coordinates);
+        for (var listener : lineClearedListeners.get()) {
+            listener.lineCleared(coordinates);
         }
     }
 
     /**
-     * Sets lives cleared listener
+     * Adds a lives listener, called on the game's thread
      *
      * @param listener
      */
-    public void setLivesListener(LivesListener listener) {
-        this.livesListener = listener;
+    public void addLivesListener(LivesListener listener) {
+        livesListeners.add(listener);
+    }
+
+    /**
+     * Adds a lives listener that is called on an executor instead of the game's thread
+     *
+     * @param listener
+     * @param executor where to call it
+     */
+    public void addLivesListener(LivesListener listener, Executor executor) {
+        livesListeners.add(listener, () -> executor.execute(listener::checkLives));
+    }
+
+    /**
+     * Removes a lives listener
+     *
+     * @param listener
+     */
+    public void removeLivesListener(LivesListener listener) {
+        livesListeners.remove(listener);
     }
 
     /**
      * Checks to see if there are any lives left
      */
     public void livesListen() {
-        if (livesListener != null) {
-            livesListener.checkLives();
+        for (var listener : livesListeners.get()) {
+            listener.checkLives();
         }
     }
 
     /**
-     * Sets game loop listener
+     * Adds a game loop listener, called on the game's thread
+     *
+     * @param listener
+     */
+    public void addGameLoopListener(GameLoopListener listener) {
+        gameLoopListeners.add(listener);
+    }
+
+    /**
+     * Adds a game loop listener that is called on an executor instead of the game's thread
+     *
      * @param listener
+     * @param executor where to call it
      */
-    public void setGameLoopListener(GameLoopListener listener) {
-        this.gameLoopListener = listener;
+    public void addGameLoopListener(GameLoopListener listener, Executor executor) {
+        gameLoopListeners.add(listener, time -> executor.execute(() -> listener.gameLoop(time)));
+    }
+
+    /**
+     * Removes a game loop listener
+     *
+     * @param listener
+     */
+    public void removeGameLoopListener(GameLoopListener listener) {
+        gameLoopListeners.remove(listener);
     }
 
     /**
@@ -496,8 +706,8 @@ public class Game {
      * @param time
      */
     public void loopListen(int time) {
-        if (gameLoopListener != null) {
-            gameLoopListener.gameLoop(time);
+        for (var listener : gameLoopListeners.get()) {
+            listener.gameLoop(time);
         }
     }
 
@@ -505,6 +715,15 @@ public class Game {
      * Sets game timer
      */
     public void setTimer() {
+        setTimer(getTimerDelay());
+    }
+
+    /**
+     * Sets game timer to run out after a delay
+     *
+     * @param delay milliseconds
+     */
+    public void setTimer(int delay) {
         timer = new Timer();
         timerTask = new TimerTask() {
             @Override
@@ -512,7 +731,58 @@ public class Game {
                 Platform.runLater(() -> gameLoop());
             }
         };
-        timer.schedule(timerTask, getTimerDelay());
+        timerStarted = System.currentTimeMillis();
+        timerLength = delay;
+        timer.schedule(timerTask, delay);
+    }
+
+    /**
+     * Cancels the running timer, if any, and starts it again
+     */
+    protected void restartTimer() {
+        restartTimer(getTimerDelay());
+    }
+
+    /**
+     * Cancels the running timer, if any, and starts it again with a delay
+     *
+     * @param delay milliseconds
+     */
+    protected void restartTimer(int delay) {
+        stop();
+        setTimer(delay);
+        loopListen(delay);
+    }
+
+    /**
+     * Get the time left before the timer runs out
+     *
+     * @return milliseconds, or the full delay if no timer is running
+     */
+    public int getTimeLeft() {
+        if (timerStarted == 0) {
+            return getTimerDelay();
+        }
+        return (int) Math.max(0, timerLength - (System.currentTimeMillis() - timerStarted));
+    }
+
+    /**
+     * Stops the game timer
+     */
+    public void stop() {
+        if (timer != null) {
+            timer.cancel();
+            timerTask.cancel();
+        }
+    }
+
+    /**
+     * Plays a sound effect
+     *
+     * @param sound
+     */
+    protected void playSound(String sound) {
+        Multimedia.setAudioPlayer(sound);
     }
 
     /**
@@ -524,22 +794,51 @@ public class Game {
         return Math.max(2500, (12000 - 500 * level.getValue()));
     }
 
+    /**
+     * Checks if either piece can be played anywhere, in any rotation
+     *
+     * @return true if there is a move left
+     */
+    public boolean anyMoveLeft() {
+        var placements = grid.getPlacements();
+        return placements.anyPlacement(currentPiece) || placements.anyPlacement(followingPiece);
+    }
+
+    /**
+     * Loses a life straight away when no move is left,
+     * rather than making the player wait for the timer
+     */
+    protected void checkStuck() {
+        if (lives.get() >= 0 && !anyMoveLeft()) {
+            logger.info("No moves left");
+            loseLife();
+        }
+    }
+
+    /**
+     * Called when the timer runs out
+     */
+    public void gameLoop() {
+        if (replayLog != null) {
+            replayLog.expire();
+        }
+        loseLife();
+    }
+
     /**
      * Restarts the game loop, reduces the lives
      * and checks if there are any lives left
      */
-    public void gameLoop() {
-        logger.info("Restarting Timer");
+    protected void loseLife() {
+        logger.debug("Restarting Timer");
         multiplier.setValue(1);
         lives.setValue(lives.get() - 1);
         livesListen();
         if (lives.get() >= 0) {
-            Multimedia.setAudioPlayer("loselife.mp3");
+            playSound("loselife.mp3");
             nextPiece();
-            timer.cancel();
-            timerTask.cancel();
-            setTimer();
-            loopListen(getTimerDelay());
+            restartTimer();
+            checkStuck();
         } else {
             logger.info("Closing Loop");
         }
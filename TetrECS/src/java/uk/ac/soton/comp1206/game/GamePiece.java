@@ -28,6 +28,11 @@ public class GamePiece {
      */
     private final String name;
 
+    /**
+     * Clockwise rotations made since the piece was created, from 0 to 3
+     */
+    private int rotation = 0;
+
     /**
      * Create a new GamePiece of the specified piece number
      *
@@ -189,6 +194,15 @@ public class GamePiece {
         return blocks;
     }
 
+    /**
+     * Get how far this piece has been rotated, so it can be made again with createPiece(piece, rotation)
+     *
+     * @return clockwise rotations from 0 to 3
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
     /**
      * Rotate this piece the given number of rotations
      *
@@ -218,6 +232,7 @@ public class GamePiece {
         rotated[0][2] = blocks[2][2];
 
         blocks = rotated;
+        rotation = (rotation + 1) % 4;
     }
 
 
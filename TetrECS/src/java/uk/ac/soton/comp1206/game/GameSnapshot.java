@@ -0,0 +1,179 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A GameSnapshot is everything needed to carry on a game later, in a small versioned binary format.
+ * <p>
+ * The file holds a header (magic, version, flags and size), the grid packed two cells to a byte, then the current
+ * and following pieces with their rotations, the score, level, lives, multiplier and the time left on the timer.
+ * A standard game saves in under 50 bytes, and is written to a temporary file then moved into place so a crash
+ * never leaves half a save.
+ *
+ * @param cols              number of columns
+ * @param rows              number of rows
+ * @param practice          whether it is a practice game
+ * @param cells             grid values, indexed by x + y * cols
+ * @param current           current piece number
+ * @param currentRotation   rotation of the current piece
+ * @param following         following piece number
+ * @param followingRotation rotation of the following piece
+ * @param score             score
+ * @param level             level
+ * @param lives             lives
+ * @param multiplier        multiplier
+ * @param timeLeft          milliseconds left on the timer
+ */
+public record GameSnapshot(int cols, int rows, boolean practice, byte[] cells, int current, int currentRotation,
+                           int following, int followingRotation, int score, int level, int lives, int multiplier,
+                           int timeLeft) {
+
+    private static final Logger logger = LogManager.getLogger(GameSnapshot.class);
+
+    private static final int MAGIC = 0x54525331;
+
+    private static final byte VERSION = 1;
+
+    private static final int PRACTICE = 1;
+
+    /**
+     * Bytes before the grid: magic, version, flags, cols and rows
+     */
+    private static final int HEADER = 8;
+
+    /**
+     * Bytes after the grid: four piece bytes and five ints
+     */
+    private static final int TRAILER = 4 + 5 * 4;
+
+    /**
+     * Takes a snapshot of a game in progress. Must be called on the thread that runs the game
+     *
+     * @param game
+     * @return snapshot
+     */
+    public static GameSnapshot of(Game game) {
+        var grid = game.getGrid();
+        int cols = grid.getCols();
+        int rows = grid.getRows();
+        var cells = new byte[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                cells[x + y * cols] = (byte) grid.get(x, y);
+            }
+        }
+        var current = game.getCurrentPiece();
+        var following = game.getFollowingPiece();
+        return new GameSnapshot(cols, rows, game instanceof PracticeGame, cells, current.getValue() - 1,
+                current.getRotation(), following.getValue() - 1, following.getRotation(), game.getScore().get(),
+                game.getLevel().get(), game.getLives().get(), game.getMultiplier().get(), game.getTimeLeft());
+    }
+
+    /**
+     * Get the value of a cell
+     *
+     * @param x column
+     * @param y row
+     * @return value
+     */
+    public int get(int x, int y) {
+        return cells[x + y * cols];
+    }
+
+    /**
+     * Encodes the snapshot
+     *
+     * @return buffer ready to be read
+     */
+    public ByteBuffer toBuffer() {
+        var buffer = ByteBuffer.allocate(HEADER + (cells.length + 1) / 2 + TRAILER);
+        buffer.putInt(MAGIC).put(VERSION).put((byte) (practice ? PRACTICE : 0)).put((byte) cols).put((byte) rows);
+        //Piece values fit in four bits, so pack two cells to a byte
+        for (int i = 0; i < cells.length; i += 2) {
+            int high = i + 1 < cells.length ? cells[i + 1] : 0;
+            buffer.put((byte) (cells[i] | high << 4));
+        }
+        buffer.put((byte) current).put((byte) currentRotation).put((byte) following).put((byte) followingRotation);
+        buffer.putInt(score).putInt(level).putInt(lives).putInt(multiplier).putInt(timeLeft);
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes a snapshot
+     *
+     * @param buffer
+     * @return snapshot
+     * @throws IOException if the bytes are not a snapshot this version can read
+     */
+    public static GameSnapshot fromBuffer(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IOException("Not a saved game");
+        }
+        int flags = buffer.get();
+        int cols = buffer.get() & 0xFF;
+        int rows = buffer.get() & 0xFF;
+        var cells = new byte[cols * rows];
+        if (buffer.remaining() != (cells.length + 1) / 2 + TRAILER) {
+            throw new IOException("Saved game is the wrong length");
+        }
+        for (int i = 0; i < cells.length; i += 2) {
+            int packed = buffer.get();
+            cells[i] = (byte) (packed & 0xF);
+            if (i + 1 < cells.length) {
+                cells[i + 1] = (byte) (packed >> 4 & 0xF);
+            }
+        }
+        return new GameSnapshot(cols, rows, (flags & PRACTICE) != 0, cells, buffer.get(), buffer.get(), buffer.get(),
+                buffer.get(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+    }
+
+    /**
+     * Saves the snapshot, replacing any earlier save
+     *
+     * @param file
+     * @throws IOException if it can't be written
+     */
+    public void save(File file) throws IOException {
+        var path = file.toPath();
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        var buffer = toBuffer();
+        int size = buffer.remaining();
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Saved game of {} bytes to {}", size, file);
+    }
+
+    /**
+     * Loads a saved snapshot
+     *
+     * @param file
+     * @return snapshot
+     * @throws IOException if it can't be read
+     */
+    public static GameSnapshot load(File file) throws IOException {
+        try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Saved game is cut short");
+                }
+            }
+            return fromBuffer(buffer.flip());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.metrics.Histogram;
+import uk.ac.soton.comp1206.metrics.Metrics;
 
 /**
  * The Grid is a model which holds the state of a game board. It is made up of a set of Integer values arranged in a 2D
@@ -19,6 +21,8 @@ import org.apache.logging.log4j.Logger;
 public class Grid {
 
     private static final Logger logger = LogManager.getLogger(Grid.class);
+
+    private static final Histogram playPieceTime = Metrics.histogram("grid.playPiece");
     /**
      * The number of columns in this grid
      */
@@ -34,6 +38,27 @@ public class Grid {
      */
     private final SimpleIntegerProperty[][] grid;
 
+    /**
+     * Zobrist hash of the size and which cells are filled, kept up to date by set()
+     */
+    private long hash;
+
+    /**
+     * Where each piece shape can be played, kept up to date by set()
+     */
+    private final PlacementIndex placements;
+
+    /**
+     * Filled cells in each row and column, kept up to date by set()
+     */
+    private final int[] rowCounts;
+    private final int[] colCounts;
+
+    /**
+     * Rows changed since the last snapshot
+     */
+    private final boolean[] dirtyRows;
+
     /**
      * Create a new Grid with the specified number of columns and rows and initialise them
      *
@@ -46,6 +71,11 @@ public class Grid {
 
         //Create the grid itself
         grid = new SimpleIntegerProperty[cols][rows];
+        placements = new PlacementIndex(cols, rows);
+        rowCounts = new int[rows];
+        colCounts = new int[cols];
+        dirtyRows = new boolean[rows];
+        hash = Zobrist.size(cols, rows);
 
         //Add a SimpleIntegerProperty to every block in the grid
         for (var y = 0; y < rows; y++) {
@@ -74,7 +104,142 @@ public class Grid {
      * @param value the new value
      */
     public void set(int x, int y, int value) {
+        int old = grid[x][y].get();
         grid[x][y].set(value);
+        if (old != value) {
+            dirtyRows[y] = true;
+        }
+        if ((old == 0) != (value == 0)) {
+            hash ^= Zobrist.key(y * cols + x);
+            int change = value == 0 ? -1 : 1;
+            rowCounts[y] += change;
+            colCounts[x] += change;
+            if (value == 0) {
+                placements.emptied(x, y);
+            } else {
+                placements.filled(x, y);
+            }
+        }
+    }
+
+    /**
+     * Takes a snapshot of the grid that shares every row unchanged since the previous snapshot
+     *
+     * @param previous the last snapshot taken of this grid, or an empty one
+     * @return snapshot
+     */
+    public GridSnapshot snapshot(GridSnapshot previous) {
+        int[][] values = null;
+        for (int y = 0; y < rows; y++) {
+            if (!dirtyRows[y]) {
+                continue;
+            }
+            if (values == null) {
+                values = previous.rows();
+            }
+            int[] row = new int[cols];
+            for (int x = 0; x < cols; x++) {
+                row[x] = grid[x][y].get();
+            }
+            values[y] = row;
+            dirtyRows[y] = false;
+        }
+        return values == null ? previous : new GridSnapshot(cols, values);
+    }
+
+    /**
+     * Sets the grid back to a snapshot, only visiting rows that differ
+     *
+     * @param current the last snapshot taken of this grid
+     * @param target  snapshot to go back to
+     */
+    public void restore(GridSnapshot current, GridSnapshot target) {
+        for (int y = 0; y < rows; y++) {
+            if (!dirtyRows[y] && current.row(y) == target.row(y)) {
+                continue;
+            }
+            int[] row = target.row(y);
+            for (int x = 0; x < cols; x++) {
+                if (grid[x][y].get() != row[x]) {
+                    set(x, y, row[x]);
+                }
+            }
+            dirtyRows[y] = false;
+        }
+    }
+
+    /**
+     * Get the number of filled cells in a row
+     *
+     * @param y row
+     * @return filled cells
+     */
+    public int getRowCount(int y) {
+        return rowCounts[y];
+    }
+
+    /**
+     * Get the number of filled cells in a column
+     *
+     * @param x column
+     * @return filled cells
+     */
+    public int getColCount(int x) {
+        return colCounts[x];
+    }
+
+    /**
+     * Works out which rows and columns playing a shape would fill, from the row and column counts rather than
+     * the whole grid. The shape must fit
+     *
+     * @param shape    the piece as rotated
+     * @param x        column of the piece centre
+     * @param y        row of the piece centre
+     * @param fullRows set true for each row that would be cleared
+     * @param fullCols set true for each column that would be cleared
+     * @return number of lines that would be cleared
+     */
+    public int predictClears(Bitboard.Shape shape, int x, int y, boolean[] fullRows, boolean[] fullCols) {
+        //Blocks the piece adds to the rows and columns around its centre
+        int[] addedRows = new int[3];
+        int[] addedCols = new int[3];
+        for (int i = 0; i < shape.size(); i++) {
+            addedCols[shape.dx()[i] + 1]++;
+            addedRows[shape.dy()[i] + 1]++;
+        }
+        int lines = 0;
+        for (int d = 0; d < 3; d++) {
+            int row = y + d - 1;
+            if (addedRows[d] > 0 && rowCounts[row] + addedRows[d] == cols) {
+                fullRows[row] = true;
+                lines++;
+            }
+            int col = x + d - 1;
+            if (addedCols[d] > 0 && colCounts[col] + addedCols[d] == rows) {
+                fullCols[col] = true;
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Get the index of where each piece shape can be played
+     *
+     * @return placement index
+     */
+    public PlacementIndex getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Get the Zobrist hash of the size and which cells are filled. Grids of the same size filled in the same cells have
+     * the same hash
+     *
+     * @return hash
+     */
+    public long getHash() {
+        return hash;
     }
 
     /**
@@ -121,13 +286,13 @@ public class Grid {
      * @return true or false depending on playability of the piece
      */
     public boolean canPlayPiece(GamePiece gamePiece, int x, int y) {
-        logger.info("Checking Piece " + gamePiece.getName());
+        logger.trace("Checking Piece {}", gamePiece.getName());
         var gridX = x - 1;
         for (int[] line : gamePiece.getBlocks()) {
             var gridY = y - 1;
             for (int value : line) {
                 if (value == gamePiece.getValue() && this.get(gridX, gridY) != 0) {
-                    logger.info("Cant play Piece " + gamePiece.getName());
+                    logger.debug("Cant play Piece {}", gamePiece.getName());
                     return false;
                 }
                 gridY++;
@@ -145,7 +310,8 @@ public class Grid {
      * @param y
      */
     public void playPiece(GamePiece gamePiece, int x, int y) {
-        logger.info("Playing piece " + gamePiece.getName());
+        logger.debug("Playing piece {}", gamePiece.getName());
+        long start = System.nanoTime();
         var gridX = x - 1;
         for (int[] line : gamePiece.getBlocks()) {
             var gridY = y - 1;
@@ -157,5 +323,6 @@ public class Grid {
             }
             gridX++;
         }
+        playPieceTime.recordSince(start);
     }
 }
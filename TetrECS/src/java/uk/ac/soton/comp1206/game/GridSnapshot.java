@@ -0,0 +1,76 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A GridSnapshot is an immutable copy of a grid's values, kept row by row.
+ * <p>
+ * Rows are never changed once made, so a snapshot taken after a move shares every row the move did not touch with
+ * the snapshot before it. A long history of snapshots therefore costs little more than the rows each move changed.
+ */
+public final class GridSnapshot {
+
+    private final int cols;
+
+    /**
+     * Values by row then column. Shared between snapshots, so never written to
+     */
+    private final int[][] rows;
+
+    GridSnapshot(int cols, int[][] rows) {
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * Create a snapshot of an empty grid, with every row sharing one empty row
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     * @return snapshot
+     */
+    public static GridSnapshot empty(int cols, int rows) {
+        var row = new int[cols];
+        var values = new int[rows][];
+        for (int y = 0; y < rows; y++) {
+            values[y] = row;
+        }
+        return new GridSnapshot(cols, values);
+    }
+
+    /**
+     * Get the value at a position
+     *
+     * @param x column
+     * @param y row
+     * @return value
+     */
+    public int get(int x, int y) {
+        return rows[y][x];
+    }
+
+    /**
+     * Get a row. The array is shared and must not be changed
+     *
+     * @param y
+     * @return values by column
+     */
+    int[] row(int y) {
+        return rows[y];
+    }
+
+    /**
+     * Get a copy of the row references, to make the next snapshot from
+     *
+     * @return rows
+     */
+    int[][] rows() {
+        return rows.clone();
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows.length;
+    }
+}
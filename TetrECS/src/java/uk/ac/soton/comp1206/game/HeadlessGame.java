@@ -0,0 +1,27 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A HeadlessGame runs without sound, UI or a real timer, so it can be played as fast as possible by the Bot or in
+ * tests. The timer only runs out when gameLoop() is called.
+ */
+public class HeadlessGame extends Game {
+
+    /**
+     * Create a new headless game
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed random seed
+     */
+    public HeadlessGame(int cols, int rows, long seed) {
+        super(cols, rows, seed);
+    }
+
+    @Override
+    public void setTimer(int delay) {
+    }
+
+    @Override
+    protected void playSound(String sound) {
+    }
+}
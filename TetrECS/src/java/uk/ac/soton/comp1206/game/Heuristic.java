@@ -0,0 +1,63 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A tunable weighting of how good a move and the board it leaves are, used by the Bot to rank placements.
+ *
+ * @param lines    reward for each line cleared
+ * @param blocks   reward for each block cleared
+ * @param empty    reward for each empty cell left
+ * @param isolated reward for each empty cell with no empty neighbours, which only a Dot can fill
+ * @param fill     reward for the square of how full each row and column is, favouring nearly complete lines
+ * @param stuck    reward when the next piece has nowhere to go
+ */
+public record Heuristic(double lines, double blocks, double empty, double isolated, double fill, double stuck) {
+
+    /**
+     * Weights that play a reasonable game on the standard board
+     */
+    public static final Heuristic DEFAULT = new Heuristic(20, 1, 0.5, -4, 0.3, -50);
+
+    /**
+     * Scores the move that produced a board
+     *
+     * @param board board after the move
+     * @return reward
+     */
+    public double reward(Bitboard board) {
+        return lines * board.getLinesCleared() + blocks * board.getBlocksCleared();
+    }
+
+    /**
+     * Scores the position on a board
+     *
+     * @param board
+     * @return value
+     */
+    public double evaluate(Bitboard board) {
+        int cols = board.getCols();
+        int rows = board.getRows();
+        double value = empty * (cols * rows - board.count());
+
+        int lonely = 0;
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < rows; y++) {
+                if (!board.get(x, y) && board.get(x - 1, y) && board.get(x + 1, y)
+                        && board.get(x, y - 1) && board.get(x, y + 1)) {
+                    lonely++;
+                }
+            }
+        }
+        value += isolated * lonely;
+
+        double lineFill = 0;
+        for (int y = 0; y < rows; y++) {
+            double full = (double) board.rowCount(y) / cols;
+            lineFill += full * full;
+        }
+        for (int x = 0; x < cols; x++) {
+            double full = (double) board.colCount(x) / rows;
+            lineFill += full * full;
+        }
+        return value + fill * lineFill;
+    }
+}
@@ -0,0 +1,236 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The HintEngine suggests where to play the current piece by Monte-Carlo rollouts.
+ * <p>
+ * Every place the piece fits is tried, then played on with random pieces in random positions many times over.
+ * The place whose rollouts score the most on average is the hint. Rollouts run on Bitboard snapshots on a
+ * background pool, one task per candidate place, so the live grid is never touched.
+ * <p>
+ * Each rollout scans the whole board for every piece it plays, so a hint is held to a fixed budget of cell visits.
+ * On the standard board every place gets the full number of rollouts. On larger boards fewer rollouts are run from
+ * fewer places, spread evenly over the board, so a hint never takes more than a moment.
+ * <p>
+ * Hints are cached by board and piece, so asking again on the same board is free. Each search is seeded from
+ * the board, so the same board always gets the same hint.
+ */
+public class HintEngine {
+
+    private static final Logger logger = LogManager.getLogger(HintEngine.class);
+
+    /**
+     * Random games played from each candidate place
+     */
+    public static final int ROLLOUTS = 200;
+
+    /**
+     * Pieces played in each random game
+     */
+    public static final int DEPTH = 8;
+
+    /**
+     * Cells all the rollouts for one hint may visit
+     */
+    private static final long WORK = 1L << 24;
+
+    /**
+     * Fewest rollouts run from each place on a large board
+     */
+    private static final int MIN_ROLLOUTS = 16;
+
+    /**
+     * Hints remembered
+     */
+    private static final int CACHE_SIZE = 128;
+
+    /**
+     * Score lost when a random game gets stuck
+     */
+    private static final double STUCK = 100;
+
+    /**
+     * Every rotation of every piece, for the random games
+     */
+    private static final Bitboard.Shape[][] PIECES = new Bitboard.Shape[GamePiece.PIECES][];
+
+    static {
+        for (int piece = 0; piece < GamePiece.PIECES; piece++) {
+            PIECES[piece] = Bitboard.Shape.rotations(GamePiece.createPiece(piece));
+        }
+    }
+
+    /**
+     * A suggested place for the piece
+     *
+     * @param x     column
+     * @param y     row
+     * @param value average score of the rollouts from here
+     */
+    public record Hint(int x, int y, double value) {
+    }
+
+    private record Key(Bitboard board, Bitboard.Shape shape) {
+    }
+
+    private final ExecutorService executor;
+
+    /**
+     * Hints by board and piece, least recently used first
+     */
+    private final Map<Key, CompletableFuture<Hint>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<Hint>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Create a new hint engine with a pool sized to the machine
+     */
+    public HintEngine() {
+        executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable -> {
+            Thread thread = new Thread(runnable, "HintEngine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Finds the best place for a piece on a board
+     *
+     * @param board snapshot of the board
+     * @param shape the piece as currently rotated
+     * @return the hint, or null if the piece does not fit anywhere
+     */
+    public CompletableFuture<Hint> hint(Bitboard board, Bitboard.Shape shape) {
+        var key = new Key(board, shape);
+        synchronized (cache) {
+            var cached = cache.get(key);
+            if (cached != null && !cached.isCompletedExceptionally()) {
+                logger.debug("Hint cached");
+                return cached;
+            }
+            var search = search(board, shape);
+            cache.put(key, search);
+            return search;
+        }
+    }
+
+    /**
+     * Runs the rollouts for every place the piece fits
+     *
+     * @param board
+     * @param shape
+     * @return best place
+     */
+    private CompletableFuture<Hint> search(Bitboard board, Bitboard.Shape shape) {
+        var random = new SplittableRandom(board.hashCode() * 31L + shape.hashCode());
+        int cols = board.getCols();
+        var places = new ArrayList<Integer>();
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < board.getRows(); y++) {
+                if (board.canPlay(shape, x, y)) {
+                    places.add(x + y * cols);
+                }
+            }
+        }
+
+        //Share the budget out, keeping at least a few rollouts per place
+        long budget = Math.max(1, WORK / ((long) DEPTH * cols * board.getRows()));
+        int perPlace = (int) Math.max(MIN_ROLLOUTS, Math.min(ROLLOUTS, budget / Math.max(1, places.size())));
+        int limit = (int) Math.max(1, budget / perPlace);
+
+        var candidates = new ArrayList<CompletableFuture<Hint>>();
+        for (int i = 0; i < Math.min(places.size(), limit); i++) {
+            int place = places.size() <= limit ? places.get(i) : places.get((int) ((long) i * places.size() / limit));
+            int placeX = place % cols;
+            int placeY = place / cols;
+            var seeded = random.split();
+            candidates.add(CompletableFuture.supplyAsync(
+                    () -> new Hint(placeX, placeY, rollouts(board.play(shape, placeX, placeY), seeded, perPlace)),
+                    executor));
+        }
+        return CompletableFuture.allOf(candidates.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            Hint best = null;
+            for (var candidate : candidates) {
+                var hint = candidate.join();
+                if (best == null || hint.value() > best.value()) {
+                    best = hint;
+                }
+            }
+            logger.debug("Best of {} places: {}", candidates.size(), best);
+            return best;
+        });
+    }
+
+    /**
+     * Plays many random games from a board
+     *
+     * @param start  board after the candidate move
+     * @param random
+     * @param count  games to play
+     * @return average score
+     */
+    private static double rollouts(Bitboard start, SplittableRandom random, int count) {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += rollout(start, random);
+        }
+        return points(start) + total / count;
+    }
+
+    /**
+     * Plays one random game from a board
+     *
+     * @param board
+     * @param random
+     * @return score
+     */
+    private static double rollout(Bitboard board, SplittableRandom random) {
+        double score = 0;
+        for (int move = 0; move < DEPTH; move++) {
+            var pieces = PIECES[random.nextInt(GamePiece.PIECES)];
+            var shape = pieces[random.nextInt(pieces.length)];
+
+            //Pick one of the places the piece fits, evenly, without listing them
+            int seen = 0;
+            int chosenX = -1;
+            int chosenY = -1;
+            for (int x = 0; x < board.getCols(); x++) {
+                for (int y = 0; y < board.getRows(); y++) {
+                    if (board.canPlay(shape, x, y) && random.nextInt(++seen) == 0) {
+                        chosenX = x;
+                        chosenY = y;
+                    }
+                }
+            }
+            if (seen == 0) {
+                return score - STUCK;
+            }
+            board = board.play(shape, chosenX, chosenY);
+            score += points(board);
+        }
+        return score;
+    }
+
+    /**
+     * Points scored by the move that made a board, as Game.score counts them without the multiplier
+     *
+     * @param board
+     * @return points
+     */
+    private static double points(Bitboard board) {
+        return board.getLinesCleared() * board.getBlocksCleared() * 10;
+    }
+}
@@ -4,12 +4,57 @@ import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.metrics.Histogram;
+import uk.ac.soton.comp1206.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Multimedia is used to provide audio players to play sounds and music
+ * <p>
+ * Every track is opened once, the first time it is needed or ahead of time by preload, so only the first use pays
+ * for opening it. Each song keeps one player, since only one plays at a time. Sounds get a new player every time they
+ * play, disposed when it finishes, so a sound played again quickly overlaps the last one rather than cutting it off.
  */
 public class Multimedia {
     private static final Logger logger = LogManager.getLogger(Multimedia.class);
+
+    /**
+     * Time from asking for a sound until it starts playing
+     */
+    private static final Histogram soundStart = Metrics.histogram("sound.start");
+
+    private static final Histogram musicStart = Metrics.histogram("music.start");
+
+    /**
+     * Every track the game plays, by folder
+     */
+    public static final List<String> MUSIC = List.of("menu1.3.wav", "ocean.mp3");
+
+    public static final List<String> SOUNDS = List.of("buttonclick1.wav", "gameover.wav", "gamestart.wav",
+            "incorrect.wav", "lineclear.mp3", "loselife.mp3", "rotate.mp3");
+
+    /**
+     * Seconds to wait for a track to open before giving up on preloading it
+     */
+    private static final int PRELOAD_TIMEOUT = 10;
+
+    /**
+     * Opened tracks by resource path
+     */
+    private static final Map<String, Media> media = new ConcurrentHashMap<>();
+
+    /**
+     * Music players by resource path
+     */
+    private static final Map<String, MediaPlayer> players = new ConcurrentHashMap<>();
+
     static boolean playing = false;
     public static MediaPlayer musicPlayer;
     public static double musicVolume = 0.1;
@@ -23,16 +68,16 @@ public class Multimedia {
      * @param song
      */
     public static void setMusicPlayer(String song) {
-        logger.info("Playing Music " + song);
+        logger.info("Playing Music {}", song);
+        long start = System.nanoTime();
         if (playing) {
             musicPlayer.stop();
         }
-        Media media = new Media(Multimedia.class.getResource("/music/" + song).toExternalForm());
-        musicPlayer = new MediaPlayer(media);
-        musicPlayer.setAutoPlay(true);
+        musicPlayer = player("/music/" + song);
         musicPlayer.setCycleCount(MediaPlayer.INDEFINITE);
         playing = true;
         musicPlayer.setVolume(musicVolume);
+        timeStart(musicPlayer, musicStart, start);
         musicPlayer.play();
     }
 
@@ -42,11 +87,102 @@ public class Multimedia {
      * @param sound
      */
     public static void setAudioPlayer(String sound) {
-        logger.info("Playing Sound " + sound);
-        Media media = new Media(Multimedia.class.getResource("/sounds/" + sound).toExternalForm());
-        audioPlayer = new MediaPlayer(media);
+        setAudioPlayer(sound, null);
+    }
+
+    /**
+     * Sets SFX to be played, and runs something once it has finished
+     *
+     * @param sound
+     * @param onEnd run when the sound ends, or null
+     */
+    public static void setAudioPlayer(String sound, Runnable onEnd) {
+        logger.debug("Playing Sound {}", sound);
+        long start = System.nanoTime();
+        var player = new MediaPlayer(media("/sounds/" + sound));
+        audioPlayer = player;
         playing = true;
-        audioPlayer.setVolume(SFXVolume);
-        audioPlayer.play();
+        player.setVolume(SFXVolume);
+        player.setOnEndOfMedia(() -> {
+            if (audioPlayer == player) {
+                audioPlayer = null;
+            }
+            player.dispose();
+            if (onEnd != null) {
+                onEnd.run();
+            }
+        });
+        timeStart(player, soundStart, start);
+        player.play();
+    }
+
+    /**
+     * Get a track, opening it the first time
+     *
+     * @param path resource path
+     * @return track
+     */
+    private static Media media(String path) {
+        return media.computeIfAbsent(path, key -> new Media(Multimedia.class.getResource(key).toExternalForm()));
+    }
+
+    /**
+     * Get the player for a song, making it the first time
+     *
+     * @param path resource path
+     * @return player
+     */
+    private static MediaPlayer player(String path) {
+        return players.computeIfAbsent(path, key -> new MediaPlayer(media(key)));
+    }
+
+    /**
+     * Opens every track ahead of time, so none stalls the first time it plays
+     *
+     * @param executor where to open the tracks
+     * @return one future per track, completed when its player is ready or has failed
+     */
+    public static List<CompletableFuture<Void>> preload(Executor executor) {
+        var tracks = new ArrayList<String>();
+        MUSIC.forEach(song -> tracks.add("/music/" + song));
+        SOUNDS.forEach(sound -> tracks.add("/sounds/" + sound));
+
+        var loads = new ArrayList<CompletableFuture<Void>>();
+        for (var track : tracks) {
+            boolean song = track.startsWith("/music/");
+            //Sounds are opened with a throwaway player, since each play makes its own
+            loads.add(CompletableFuture.supplyAsync(() -> song ? player(track) : new MediaPlayer(media(track)),
+                    executor).thenCompose(player -> {
+                var ready = new CompletableFuture<Void>();
+                player.setOnReady(() -> ready.complete(null));
+                player.setOnError(() -> ready.completeExceptionally(player.getError()));
+                if (player.getStatus() == MediaPlayer.Status.READY) {
+                    ready.complete(null);
+                }
+                return ready.orTimeout(PRELOAD_TIMEOUT, TimeUnit.SECONDS).whenComplete((result, e) -> {
+                    if (!song) {
+                        player.dispose();
+                    }
+                });
+            }).exceptionally(e -> {
+                logger.warn("Unable to preload {}: {}", track, e.getMessage());
+                return null;
+            }));
+        }
+        return loads;
+    }
+
+    /**
+     * Records how long a player takes to start, the first time it plays
+     *
+     * @param player
+     * @param histogram
+     * @param start     when the sound was asked for
+     */
+    private static void timeStart(MediaPlayer player, Histogram histogram, long start) {
+        player.setOnPlaying(() -> {
+            histogram.recordSince(start);
+            player.setOnPlaying(null);
+        });
     }
 }
@@ -5,15 +5,52 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.MessageParser;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MultiplayerGame extends Game {
     private static final Logger logger = LogManager.getLogger(MultiplayerGame.class);
 
+    /**
+     * Number of server pieces to keep queued or in flight
+     */
+    private static final int LOOKAHEAD = 10;
+
+    /**
+     * Queue size at which more pieces are requested from the server
+     */
+    private static final int LOW_WATERMARK = 4;
+
     private final Communicator communicator;
-    private Queue<GamePiece> pieceQueue = new LinkedList<>();
+
+    /**
+     * Pieces received from the server, filled on the socket thread and drained on the FX thread
+     */
+    private final BlockingQueue<GamePiece> pieceQueue = new LinkedBlockingQueue<>();
+
+    /**
+     * PIECE requests sent to the server that have not been answered yet
+     */
+    private final AtomicInteger pendingPieces = new AtomicInteger();
+
+    /**
+     * Set once start has been called, so the game begins as soon as enough pieces arrive
+     */
+    private final AtomicBoolean startRequested = new AtomicBoolean(false);
+
+    /**
+     * Makes sure the game is only initialised once
+     */
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    /**
+     * Moves on to the next piece still waiting for a server piece, in order. Only used on the FX thread
+     */
+    private int deferredPieces = 0;
 
     /**
      * Create a new Multiplayer game with the specified rows and columns. Creates a corresponding grid model.
@@ -23,43 +60,138 @@ public class MultiplayerGame extends Game {
      */
     public MultiplayerGame(int cols, int rows, Communicator communicator) {
         super(cols, rows);
+        //Pieces come from the server, so the game can't be replayed from its seed
+        this.replayLog = null;
         this.communicator = communicator;
         this.communicator.addListener(this::receiveCommunication);
-        for (int i = 0; i<10; i++) {
-            this.communicator.send("PIECE");
-        }
+        refillPieces();
     }
 
+    /**
+     * Starts the game once the first two pieces have arrived from the server
+     */
     @Override
     public void start() {
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        Platform.runLater(this::initialiseGame);
+        logger.info("Waiting for pieces");
+        startRequested.set(true);
+        checkReady();
     }
 
     @Override
     public void initialiseGame() {
+        logger.info("Initialising multiplayer game");
+        currentPiece = spawnPiece();
+        followingPiece = spawnPiece();
+        nextPieceListen();
         setTimer();
         loopListen(getTimerDelay());
-        Platform.runLater(() -> {
-            currentPiece = spawnPiece();
-            followingPiece =spawnPiece();
-            nextPieceListen();
-        });
     }
 
+    /**
+     * Initialises the game on the FX thread when it has been started
+     * and enough pieces are queued
+     */
+    private void checkReady() {
+        if (started.get()) {
+            Platform.runLater(this::spawnDeferred);
+        } else if (startRequested.get() && pieceQueue.size() >= 2 && started.compareAndSet(false, true)) {
+            Platform.runLater(this::initialiseGame);
+        }
+    }
+
+    /**
+     * Finishes moving on to the next piece for every spawn that had to wait, as far as the queued pieces allow
+     */
+    private void spawnDeferred() {
+        if (deferredPieces == 0) {
+            return;
+        }
+        while (deferredPieces > 0) {
+            var piece = spawnPiece();
+            if (piece == null) {
+                return;
+            }
+            deferredPieces--;
+            advance(piece);
+        }
+        logger.info("Server pieces arrived, carrying on");
+        checkStuck();
+    }
+
+    /**
+     * Requests pieces from the server until the queued and in flight
+     * pieces reach the lookahead
+     */
+    private void refillPieces() {
+        while (pieceQueue.size() + pendingPieces.get() < LOOKAHEAD) {
+            pendingPieces.incrementAndGet();
+            communicator.send("PIECE");
+        }
+    }
+
+    /**
+     * Moves on to the next piece, or waits for it if the server has not sent it yet. Pieces are never made up
+     * locally, so every player gets the same sequence
+     */
     @Override
     public void nextPiece() {
-        logger.info("Getting Next Piece");
+        logger.debug("Getting Next Piece");
+        var piece = deferredPieces == 0 ? spawnPiece() : null;
+        if (piece == null) {
+            logger.info("Waiting for the next piece from the server");
+            deferredPieces++;
+            return;
+        }
+        advance(piece);
+    }
+
+    /**
+     * Makes the following piece current and queues the server piece behind it
+     *
+     * @param piece next server piece
+     */
+    private void advance(GamePiece piece) {
         currentPiece = followingPiece;
-        followingPiece = spawnPiece();
+        followingPiece = piece;
         nextPieceListen();
         communicator.send("SCORES");
     }
 
+    /**
+     * Checks if the game is waiting for a server piece before it can carry on
+     *
+     * @return true if placing and swapping are on hold
+     */
+    public boolean isWaitingForPiece() {
+        return deferredPieces > 0;
+    }
+
+    @Override
+    public void blockClicked(int x, int y) {
+        if (isWaitingForPiece()) {
+            logger.debug("Ignoring click while waiting for a piece");
+            return;
+        }
+        super.blockClicked(x, y);
+    }
+
+    @Override
+    public void swapCurrentPiece() {
+        if (!isWaitingForPiece()) {
+            super.swapCurrentPiece();
+        }
+    }
+
+    /**
+     * Stuck checks wait until the pieces being played are the real ones
+     */
+    @Override
+    protected void checkStuck() {
+        if (!isWaitingForPiece()) {
+            super.checkStuck();
+        }
+    }
+
     /**
      * Used to handle communicator messages
      *
@@ -87,14 +219,27 @@ public class MultiplayerGame extends Game {
      * @param piece
      */
     private void addPiece(String piece) {
-        logger.info("Adding " + piece);
-        piece = piece.replace("PIECE ","");
-        pieceQueue.add(GamePiece.createPiece(Integer.parseInt(piece)));
+        logger.debug("Adding {}", piece);
+        var pieceId = MessageParser.piece(piece);
+        if (pieceId != null) {
+            pieceQueue.add(GamePiece.createPiece(pieceId.value()));
+        }
+        pendingPieces.updateAndGet(pending -> Math.max(0, pending - 1));
+        checkReady();
     }
 
+    /**
+     * Takes the next server piece without waiting, topping the queue up when it drops below the low watermark
+     *
+     * @return next piece, or null if none has arrived yet
+     */
     @Override
     public GamePiece spawnPiece() {
-        return pieceQueue.poll();
+        GamePiece piece = pieceQueue.poll();
+        if (pieceQueue.size() < LOW_WATERMARK) {
+            refillPieces();
+        }
+        return piece;
     }
 
     @Override
@@ -106,7 +251,6 @@ public class MultiplayerGame extends Game {
                 board.append(grid.getGridProperty(column,row).getValue() + " ");
             }
         }
-        communicator.send("PIECE");
         communicator.send(board.toString());
     }
 
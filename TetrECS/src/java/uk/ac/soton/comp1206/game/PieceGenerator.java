@@ -0,0 +1,21 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * A PieceGenerator chooses which piece to spawn next.
+ * <p>
+ * Generators never create their own randomness: the game passes in its single random number generator, so a
+ * game started from the same seed always gets the same pieces.
+ */
+public interface PieceGenerator {
+
+    /**
+     * Chooses the next piece
+     *
+     * @param random the game's random number generator
+     * @param level  the current level
+     * @return piece number, between 0 and GamePiece.PIECES - 1
+     */
+    int nextPiece(SplittableRandom random, int level);
+}
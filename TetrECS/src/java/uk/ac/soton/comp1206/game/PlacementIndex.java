@@ -0,0 +1,239 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * The PlacementIndex keeps, for every piece shape, a bitmask of the cells that shape could be played on.
+ * <p>
+ * For each shape and origin it counts how many of the shape's blocks would land on a filled cell or off the
+ * board; the origin is valid when that count is zero. Filling or emptying one cell only changes the counts of the
+ * origins whose shapes cover it, so the Grid updates the index in constant time on every set(), and asking
+ * whether a piece fits anywhere is a check of a few words.
+ */
+public class PlacementIndex {
+
+    /**
+     * Every distinct shape of every piece in every rotation
+     */
+    private static final Bitboard.Shape[] SHAPES;
+
+    /**
+     * Shape ids by shape
+     */
+    private static final Map<Bitboard.Shape, Integer> IDS = new HashMap<>();
+
+    /**
+     * The shape ids of all rotations of each piece, by piece number
+     */
+    private static final int[][] ROTATIONS = new int[GamePiece.PIECES][];
+
+    static {
+        var shapes = new ArrayList<Bitboard.Shape>();
+        for (int piece = 0; piece < GamePiece.PIECES; piece++) {
+            var rotations = Bitboard.Shape.rotations(GamePiece.createPiece(piece));
+            var ids = new LinkedHashSet<Integer>();
+            for (var shape : rotations) {
+                Integer id = IDS.get(shape);
+                if (id == null) {
+                    id = shapes.size();
+                    shapes.add(shape);
+                    IDS.put(shape, id);
+                }
+                ids.add(id);
+            }
+            ROTATIONS[piece] = ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+        SHAPES = shapes.toArray(new Bitboard.Shape[0]);
+    }
+
+    private final int cols;
+    private final int rows;
+
+    /**
+     * Blocks of each shape that are blocked at each origin, by shape then origin
+     */
+    private final int[][] blocked;
+
+    /**
+     * Origins where each shape fits, one bit per origin
+     */
+    private final long[][] valid;
+
+    /**
+     * Create an index for an empty board
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public PlacementIndex(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        blocked = new int[SHAPES.length][cols * rows];
+        valid = new long[SHAPES.length][(cols * rows + 63) / 64];
+
+        //Only the edges block an empty board
+        for (int id = 0; id < SHAPES.length; id++) {
+            var shape = SHAPES[id];
+            for (int x = 0; x < cols; x++) {
+                for (int y = 0; y < rows; y++) {
+                    int count = 0;
+                    for (int i = 0; i < shape.size(); i++) {
+                        int bx = x + shape.dx()[i];
+                        int by = y + shape.dy()[i];
+                        if (bx < 0 || by < 0 || bx >= cols || by >= rows) {
+                            count++;
+                        }
+                    }
+                    int origin = y * cols + x;
+                    blocked[id][origin] = count;
+                    if (count == 0) {
+                        valid[id][origin >>> 6] |= 1L << origin;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the index for a cell that became filled
+     *
+     * @param x
+     * @param y
+     */
+    void filled(int x, int y) {
+        update(x, y, 1);
+    }
+
+    /**
+     * Updates the index for a cell that became empty
+     *
+     * @param x
+     * @param y
+     */
+    void emptied(int x, int y) {
+        update(x, y, -1);
+    }
+
+    /**
+     * Changes the blocked count of every origin whose shape covers a cell
+     *
+     * @param x
+     * @param y
+     * @param change +1 when filled, -1 when emptied
+     */
+    private void update(int x, int y, int change) {
+        for (int id = 0; id < SHAPES.length; id++) {
+            var shape = SHAPES[id];
+            int[] counts = blocked[id];
+            long[] bits = valid[id];
+            for (int i = 0; i < shape.size(); i++) {
+                int ox = x - shape.dx()[i];
+                int oy = y - shape.dy()[i];
+                if (ox < 0 || oy < 0 || ox >= cols || oy >= rows) {
+                    continue;
+                }
+                int origin = oy * cols + ox;
+                int before = counts[origin];
+                counts[origin] = before + change;
+                if (before == 0) {
+                    bits[origin >>> 6] &= ~(1L << origin);
+                } else if (before + change == 0) {
+                    bits[origin >>> 6] |= 1L << origin;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the id of a shape
+     *
+     * @param shape
+     * @return id, or -1 if no piece has that shape
+     */
+    public static int shapeId(Bitboard.Shape shape) {
+        return IDS.getOrDefault(shape, -1);
+    }
+
+    /**
+     * Get the id of a piece's shape as it is currently rotated
+     *
+     * @param piece
+     * @return id
+     */
+    public static int shapeId(GamePiece piece) {
+        return shapeId(Bitboard.Shape.of(piece));
+    }
+
+    /**
+     * Get the shape with an id
+     *
+     * @param id
+     * @return shape
+     */
+    public static Bitboard.Shape shape(int id) {
+        return SHAPES[id];
+    }
+
+    /**
+     * Checks if a shape fits with its centre on a cell
+     *
+     * @param id shape id
+     * @param x
+     * @param y
+     * @return true if it fits
+     */
+    public boolean canPlay(int id, int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows) {
+            return false;
+        }
+        int origin = y * cols + x;
+        return (valid[id][origin >>> 6] & (1L << origin)) != 0;
+    }
+
+    /**
+     * Checks if a shape fits anywhere
+     *
+     * @param id shape id
+     * @return true if it fits somewhere
+     */
+    public boolean anyPlacement(int id) {
+        for (long word : valid[id]) {
+            if (word != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a piece fits anywhere in any rotation
+     *
+     * @param piece
+     * @return true if it fits somewhere
+     */
+    public boolean anyPlacement(GamePiece piece) {
+        for (int id : ROTATIONS[piece.getValue() - 1]) {
+            if (anyPlacement(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the places a shape fits
+     *
+     * @param id shape id
+     * @return number of valid origins
+     */
+    public int countPlacements(int id) {
+        int count = 0;
+        for (long word : valid[id]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
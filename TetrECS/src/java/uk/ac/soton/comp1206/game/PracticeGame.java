@@ -0,0 +1,157 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+
+/**
+ * A PracticeGame lets the player undo and redo placements.
+ * <p>
+ * After every placement the grid is snapshotted alongside the pieces, score, level and multiplier. Grid snapshots
+ * share every row a move did not change, so thousands of moves of history stay cheap. Undoing only rewrites the rows
+ * that differ. Practice games are not recorded, as undoing would break the replay.
+ */
+public class PracticeGame extends Game {
+
+    private static final Logger logger = LogManager.getLogger(PracticeGame.class);
+
+    /**
+     * Everything restored by an undo or redo
+     *
+     * @param grid              the grid
+     * @param current           current piece number
+     * @param currentRotation   rotation of the current piece
+     * @param following         following piece number
+     * @param followingRotation rotation of the following piece
+     * @param score             score
+     * @param level             level
+     * @param multiplier        multiplier
+     */
+    private record State(GridSnapshot grid, int current, int currentRotation, int following, int followingRotation,
+                         int score, int level, int multiplier) {
+    }
+
+    /**
+     * States from the start of the game, oldest first
+     */
+    private final ArrayList<State> history = new ArrayList<>();
+
+    /**
+     * Index in the history of the state the game is in
+     */
+    private int position = -1;
+
+    /**
+     * Create a new practice game
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public PracticeGame(int cols, int rows) {
+        super(cols, rows);
+        this.replayLog = null;
+    }
+
+    @Override
+    public void initialiseGame() {
+        super.initialiseGame();
+        history.clear();
+        position = -1;
+        record(GridSnapshot.empty(cols, rows));
+    }
+
+    @Override
+    public void resume(GameSnapshot snapshot) {
+        super.resume(snapshot);
+        history.clear();
+        position = -1;
+        record(GridSnapshot.empty(cols, rows));
+    }
+
+    @Override
+    public void blockClicked(int x, int y) {
+        var placed = currentPiece;
+        super.blockClicked(x, y);
+        if (currentPiece != placed) {
+            record(history.get(position).grid());
+        }
+    }
+
+    /**
+     * Adds the game as it is now to the history, dropping anything that could have been redone
+     *
+     * @param previous snapshot of the grid before the move
+     */
+    private void record(GridSnapshot previous) {
+        history.subList(position + 1, history.size()).clear();
+        history.add(new State(grid.snapshot(previous), currentPiece.getValue() - 1, currentPiece.getRotation(),
+                followingPiece.getValue() - 1, followingPiece.getRotation(), score.get(), level.get(),
+                multiplier.get()));
+        position++;
+    }
+
+    /**
+     * Takes back the last placement
+     *
+     * @return false if there was nothing to undo
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        logger.debug("Undoing to move {}", position - 1);
+        restore(position - 1);
+        return true;
+    }
+
+    /**
+     * Makes a placement that was undone again
+     *
+     * @return false if there was nothing to redo
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        logger.debug("Redoing to move {}", position + 1);
+        restore(position + 1);
+        return true;
+    }
+
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    public boolean canRedo() {
+        return position < history.size() - 1;
+    }
+
+    /**
+     * Get the number of states in the history, including the start
+     *
+     * @return states
+     */
+    public int getHistorySize() {
+        return history.size();
+    }
+
+    /**
+     * Puts the game back into a state from the history and restarts the timer
+     *
+     * @param target index in the history
+     */
+    private void restore(int target) {
+        var state = history.get(target);
+        grid.restore(history.get(position).grid(), state.grid());
+        position = target;
+
+        currentPiece = GamePiece.createPiece(state.current(), state.currentRotation());
+        followingPiece = GamePiece.createPiece(state.following(), state.followingRotation());
+        score.set(state.score());
+        level.set(state.level());
+        multiplier.set(state.multiplier());
+        nextPieceListen();
+        restartTimer();
+    }
+}
@@ -0,0 +1,117 @@
+package uk.ac.soton.comp1206.game;
+
+import javafx.beans.property.SimpleListProperty;
+import javafx.collections.FXCollections;
+import javafx.util.Pair;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RankedScores keeps a list of player scores sorted highest first and updates it in place.
+ * <p>
+ * Each player is identified by an id, which may differ from the name shown. Updating a player only moves that
+ * player's entry, and updating a player with an unchanged name and score does nothing, so listeners on the list
+ * only see the entries that actually changed.
+ */
+public class RankedScores {
+
+    /**
+     * Scores shown, highest first
+     */
+    private final SimpleListProperty<Pair<String, Integer>> scores = new SimpleListProperty<>(FXCollections.observableArrayList());
+
+    /**
+     * Current entry for each player id
+     */
+    private final HashMap<String, Pair<String, Integer>> entries = new HashMap<>();
+
+    /**
+     * Get the sorted scores
+     *
+     * @return scores, highest first
+     */
+    public SimpleListProperty<Pair<String, Integer>> getScores() {
+        return scores;
+    }
+
+    /**
+     * Sets a player's shown name and score, moving the entry only if the score changed
+     *
+     * @param id    player id
+     * @param name  name to show
+     * @param score player score
+     * @return true if the scores changed
+     */
+    public boolean update(String id, String name, int score) {
+        var old = entries.get(id);
+        if (old != null && old.getValue() == score && old.getKey().equals(name)) {
+            return false;
+        }
+
+        var entry = new Pair<>(name, score);
+        entries.put(id, entry);
+        if (old != null && old.getValue() == score) {
+            scores.set(indexOf(old), entry);
+            return true;
+        }
+        if (old != null) {
+            scores.remove(indexOf(old));
+        }
+        scores.add(position(score), entry);
+        return true;
+    }
+
+    /**
+     * Removes any players not in the given ids
+     *
+     * @param ids players to keep
+     */
+    public void retain(Set<String> ids) {
+        Iterator<Map.Entry<String, Pair<String, Integer>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (!ids.contains(entry.getKey())) {
+                scores.remove(indexOf(entry.getValue()));
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Finds where a score belongs, after any equal scores
+     *
+     * @param score
+     * @return insertion index
+     */
+    private int position(int score) {
+        int low = 0;
+        int high = scores.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (scores.get(middle).getValue() >= score) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds an entry by identity, since several players can share a shown name and score
+     *
+     * @param entry
+     * @return index of the entry
+     */
+    private int indexOf(Pair<String, Integer> entry) {
+        for (int i = 0; i < scores.size(); i++) {
+            if (scores.get(i) == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
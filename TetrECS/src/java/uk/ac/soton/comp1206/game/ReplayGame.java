@@ -0,0 +1,90 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A ReplayGame plays back a recorded game. It starts from the recorded seed and piece generator, and its timer
+ * only runs out when the log says it did, so applying the events in order rebuilds the original game exactly.
+ * <p>
+ * A headless replay makes no sound and needs no UI, so a whole game can be simulated at full speed.
+ */
+public class ReplayGame extends Game implements ReplayLog.Handler {
+
+    private static final Logger logger = LogManager.getLogger(ReplayGame.class);
+
+    private final ReplayLog log;
+
+    private final boolean headless;
+
+    /**
+     * Create a new game to play back a log
+     *
+     * @param log      the recorded game
+     * @param headless true to play without sound
+     */
+    public ReplayGame(ReplayLog log, boolean headless) {
+        super(log.getCols(), log.getRows(), log.getSeed());
+        this.log = log;
+        this.headless = headless;
+        this.replayLog = null;
+        setPieceGenerator(log.createGenerator());
+    }
+
+    /**
+     * Re-simulates a whole recorded game as fast as possible
+     *
+     * @param log the recorded game
+     * @return the game in its final state
+     */
+    public static ReplayGame simulate(ReplayLog log) {
+        var game = new ReplayGame(log, true);
+        game.start();
+        log.forEach(game);
+        logger.info("Simulated replay, final score {}", game.getScore().get());
+        return game;
+    }
+
+    /**
+     * The timer only runs out when the log says so
+     */
+    @Override
+    public void setTimer(int delay) {
+    }
+
+    @Override
+    protected void playSound(String sound) {
+        if (!headless) {
+            super.playSound(sound);
+        }
+    }
+
+    @Override
+    public void place(long tick, int x, int y) {
+        blockClicked(x, y);
+    }
+
+    @Override
+    public void rotate(long tick, int amount) {
+        rotateCurrentPiece(amount);
+    }
+
+    @Override
+    public void swap(long tick) {
+        swapCurrentPiece();
+    }
+
+    @Override
+    public void expire(long tick) {
+        gameLoop();
+    }
+
+    /**
+     * Get the log being played back
+     *
+     * @return log
+     */
+    public ReplayLog getLog() {
+        return log;
+    }
+}
@@ -0,0 +1,413 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A ReplayLog is a compact binary record of everything the player did in a game.
+ * <p>
+ * Together with the seed and piece generator, the moves are enough to play the whole game again exactly. The log
+ * starts with a header (magic, version, seed, size and generator), followed by one record per event:
+ * <ul>
+ *     <li>a byte holding the event type in the low two bits and, for rotations, the amount above them</li>
+ *     <li>milliseconds since the previous event, as a varint</li>
+ *     <li>for placements only, the block index x + y * cols as a varint</li>
+ * </ul>
+ * A typical move takes three or four bytes.
+ */
+public class ReplayLog {
+
+    private static final Logger logger = LogManager.getLogger(ReplayLog.class);
+
+    private static final int MAGIC = 0x54525031;
+
+    private static final byte VERSION = 1;
+
+    /**
+     * Bytes before the events: magic, version, seed, cols, rows and generator
+     */
+    private static final int HEADER = 4 + 1 + 8 + 1 + 1 + 1;
+
+    /**
+     * Extension of saved replays
+     */
+    public static final String EXTENSION = ".tetr";
+
+    static final int PLACE = 0;
+    static final int ROTATE = 1;
+    static final int SWAP = 2;
+    static final int EXPIRE = 3;
+
+    /**
+     * Codes of the piece generators that can be replayed
+     */
+    private static final int UNIFORM = 0;
+    private static final int BAG = 1;
+    private static final int WEIGHTED = 2;
+
+    /**
+     * Receives the events of a replay in order
+     */
+    public interface Handler {
+
+        /**
+         * A piece was played
+         *
+         * @param tick milliseconds since the game started
+         * @param x
+         * @param y
+         */
+        void place(long tick, int x, int y);
+
+        /**
+         * The current piece was rotated
+         *
+         * @param tick   milliseconds since the game started
+         * @param amount number of clockwise quarter turns
+         */
+        void rotate(long tick, int amount);
+
+        /**
+         * The current and following pieces were swapped
+         *
+         * @param tick milliseconds since the game started
+         */
+        void swap(long tick);
+
+        /**
+         * The timer ran out
+         *
+         * @param tick milliseconds since the game started
+         */
+        void expire(long tick);
+    }
+
+    /**
+     * Handler that does nothing, for reading a log through
+     */
+    private static final Handler IGNORE = new Handler() {
+        @Override
+        public void place(long tick, int x, int y) {
+        }
+
+        @Override
+        public void rotate(long tick, int amount) {
+        }
+
+        @Override
+        public void swap(long tick) {
+        }
+
+        @Override
+        public void expire(long tick) {
+        }
+    };
+
+    private final long seed;
+    private final int cols;
+    private final int rows;
+    private int generator = UNIFORM;
+
+    private byte[] events = new byte[256];
+    private int size = 0;
+
+    private long startTime;
+    private long lastTick = 0;
+
+    /**
+     * Create an empty log for a game
+     *
+     * @param seed game seed
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public ReplayLog(long seed, int cols, int rows) {
+        this.seed = seed;
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * Starts the clock when the game starts, noting how its pieces are chosen
+     *
+     * @param pieceGenerator the game's piece generator
+     */
+    public void start(PieceGenerator pieceGenerator) {
+        if (pieceGenerator instanceof BagPieceGenerator) {
+            generator = BAG;
+        } else if (pieceGenerator instanceof WeightedPieceGenerator) {
+            generator = WEIGHTED;
+        } else {
+            if (!(pieceGenerator instanceof UniformPieceGenerator)) {
+                logger.warn("Replays cannot recreate {}", pieceGenerator.getClass().getName());
+            }
+            generator = UNIFORM;
+        }
+        startTime = System.nanoTime();
+        lastTick = 0;
+    }
+
+    /**
+     * Records a piece being played
+     *
+     * @param x
+     * @param y
+     */
+    public void place(int x, int y) {
+        event(PLACE);
+        writeVarint(x + y * cols);
+    }
+
+    /**
+     * Records the current piece being rotated
+     *
+     * @param amount
+     */
+    public void rotate(int amount) {
+        event(ROTATE | (Math.floorMod(amount, 4) << 2));
+    }
+
+    /**
+     * Records the pieces being swapped
+     */
+    public void swap() {
+        event(SWAP);
+    }
+
+    /**
+     * Records the timer running out
+     */
+    public void expire() {
+        event(EXPIRE);
+    }
+
+    /**
+     * Writes the event byte and the time since the last event
+     *
+     * @param header
+     */
+    private void event(int header) {
+        long tick = (System.nanoTime() - startTime) / 1_000_000;
+        ensure(1);
+        events[size++] = (byte) header;
+        writeVarint(Math.max(0, tick - lastTick));
+        lastTick = Math.max(lastTick, tick);
+    }
+
+    /**
+     * Writes an unsigned varint, seven bits per byte
+     *
+     * @param value
+     */
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            events[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        events[size++] = (byte) value;
+    }
+
+    /**
+     * Grows the event buffer if needed
+     *
+     * @param bytes space needed
+     */
+    private void ensure(int bytes) {
+        if (size + bytes > events.length) {
+            events = Arrays.copyOf(events, Math.max(events.length * 2, size + bytes));
+        }
+    }
+
+    /**
+     * Checks if anything has been recorded
+     *
+     * @return true if there are no events
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Passes every event to a handler, in order
+     *
+     * @param handler
+     */
+    public void forEach(Handler handler) {
+        var buffer = ByteBuffer.wrap(events, 0, size);
+        long tick = 0;
+        while (buffer.hasRemaining()) {
+            int header = buffer.get() & 0xFF;
+            tick += readVarint(buffer);
+            switch (header & 3) {
+                case PLACE -> {
+                    int block = (int) readVarint(buffer);
+                    handler.place(tick, block % cols, block / cols);
+                }
+                case ROTATE -> handler.rotate(tick, header >>> 2);
+                case SWAP -> handler.swap(tick);
+                default -> handler.expire(tick);
+            }
+        }
+    }
+
+    /**
+     * Reads an unsigned varint
+     *
+     * @param buffer
+     * @return value
+     */
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Creates a new piece generator of the kind the game used
+     *
+     * @return piece generator
+     */
+    public PieceGenerator createGenerator() {
+        return switch (generator) {
+            case BAG -> new BagPieceGenerator();
+            case WEIGHTED -> new WeightedPieceGenerator();
+            default -> new UniformPieceGenerator();
+        };
+    }
+
+    /**
+     * Encodes the whole log
+     *
+     * @return bytes
+     */
+    public byte[] toBytes() {
+        var buffer = ByteBuffer.allocate(HEADER + size);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(seed);
+        buffer.put((byte) cols);
+        buffer.put((byte) rows);
+        buffer.put((byte) generator);
+        buffer.put(events, 0, size);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a log
+     *
+     * @param bytes
+     * @return log
+     * @throws IOException if the bytes are not a replay this version can read
+     */
+    public static ReplayLog fromBytes(byte[] bytes) throws IOException {
+        var buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IOException("Not a replay");
+        }
+        var log = new ReplayLog(buffer.getLong(), buffer.get() & 0xFF, buffer.get() & 0xFF);
+        log.generator = buffer.get();
+        log.events = Arrays.copyOfRange(bytes, buffer.position(), bytes.length);
+        log.size = log.events.length;
+        if (log.cols == 0) {
+            throw new IOException("Replay has no board");
+        }
+        //Check the events read to the end now, rather than failing part way through playing them
+        try {
+            log.forEach(IGNORE);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Replay is cut short");
+        }
+        return log;
+    }
+
+    /**
+     * Saves the log in a directory, named by the time it is saved
+     *
+     * @param directory
+     * @return file written
+     * @throws IOException if it can't be written
+     */
+    public File save(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        var file = new File(directory, System.currentTimeMillis() + EXTENSION);
+        Files.write(file.toPath(), toBytes());
+        logger.info("Saved replay of {} bytes to {}", size, file);
+        return file;
+    }
+
+    /**
+     * Loads a saved log
+     *
+     * @param file
+     * @return log
+     * @throws IOException if it can't be read
+     */
+    public static ReplayLog load(File file) throws IOException {
+        return fromBytes(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Finds the most recent replay saved in a directory
+     *
+     * @param directory
+     * @return newest replay file, or null if there are none
+     */
+    public static File latest(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null || files.length == 0) {
+            return null;
+        }
+        return Arrays.stream(files).max(Comparator.comparing(File::getName)).orElse(null);
+    }
+
+    /**
+     * Get the seed of the game
+     *
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the number of columns in the game
+     *
+     * @return columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in the game
+     *
+     * @return rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the size of the events recorded
+     *
+     * @return bytes
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,265 @@
+package uk.ac.soton.comp1206.game;
+
+import javafx.application.Platform;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleListProperty;
+import javafx.collections.FXCollections;
+import javafx.util.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.MessageParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScoreCache holds the local and online high scores for the whole game so scenes never read files or wait on
+ * the server themselves.
+ * <p>
+ * Local scores are loaded once on a background thread from the {@link ScoreStore}. Online scores are requested
+ * from the server and reused until they are older than the TTL. Both lists are properties which are only changed
+ * on the FX thread, so scenes can bind to them or listen for updates.
+ */
+public class ScoreCache {
+
+    private static final Logger logger = LogManager.getLogger(ScoreCache.class);
+
+    /**
+     * Number of scores shown in each list
+     */
+    public static final int SCORES = 10;
+
+    /**
+     * How long online scores are reused before asking the server again
+     */
+    private static final long ONLINE_TTL_MS = 30000;
+
+    /**
+     * How long to wait for the server's high scores before using the cached ones
+     */
+    private static final long ONLINE_TIMEOUT_MS = 2000;
+
+    /**
+     * Orders scores highest first
+     */
+    private static final Comparator<Pair<String, Integer>> comparator = (o1, o2) -> o2.getValue().compareTo(o1.getValue());
+
+    private final Communicator communicator;
+
+    private final ScoreStore store;
+
+    /**
+     * Background thread for score file I/O
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ScoreCache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Local scores, highest first
+     */
+    private final SimpleListProperty<Pair<String, Integer>> localScores = new SimpleListProperty<>(FXCollections.observableArrayList());
+
+    /**
+     * Online scores, highest first
+     */
+    private final SimpleListProperty<Pair<String, Integer>> onlineScores = new SimpleListProperty<>(FXCollections.observableArrayList());
+
+    /**
+     * Highest local score
+     */
+    private final SimpleIntegerProperty highScore = new SimpleIntegerProperty(0);
+
+    /**
+     * Completed once the local scores have been loaded
+     */
+    private final CompletableFuture<Void> localLoaded = new CompletableFuture<>();
+
+    /**
+     * Outstanding HISCORES request, completed on the FX thread once the online scores are set
+     */
+    private CompletableFuture<Void> onlineRequest;
+
+    /**
+     * When the online scores were last received
+     */
+    private long onlineFetched = 0;
+
+    /**
+     * Create a new score cache
+     *
+     * @param communicator communicator used to fetch online scores
+     * @param store        local score store
+     */
+    public ScoreCache(Communicator communicator, ScoreStore store) {
+        this.communicator = communicator;
+        this.store = store;
+    }
+
+    /**
+     * Loads the local scores in the background
+     */
+    public void loadLocalScores() {
+        executor.execute(() -> {
+            try {
+                var scores = store.getScores();
+                var top = store.getHighScore();
+                Platform.runLater(() -> {
+                    localScores.setAll(scores);
+                    highScore.set(top);
+                    localLoaded.complete(null);
+                });
+            } catch (IOException e) {
+                logger.error("Unable to load local scores: {}", e.getMessage());
+                Platform.runLater(() -> localLoaded.complete(null));
+            }
+        });
+    }
+
+    /**
+     * Get a future completed once the local scores are loaded
+     *
+     * @return local scores loaded
+     */
+    public CompletableFuture<Void> getLocalLoaded() {
+        return localLoaded;
+    }
+
+    /**
+     * Makes sure the online scores are up to date, asking the server if the cached ones have expired. Must be
+     * called on the FX thread
+     *
+     * @return future completed once the online scores are set, or after a timeout if the server does not answer
+     */
+    public CompletableFuture<Void> requestOnlineScores() {
+        if (onlineRequest != null && !onlineRequest.isDone()) {
+            return onlineRequest.handle((result, e) -> null);
+        }
+        if (onlineFetched != 0 && System.currentTimeMillis() - onlineFetched < ONLINE_TTL_MS) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        var request = new CompletableFuture<Void>();
+        onlineRequest = request;
+        communicator.send("HISCORES");
+        return request.orTimeout(ONLINE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .handle((result, e) -> {
+                    if (e != null) {
+                        logger.warn("Online scores not received, using cached scores");
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Handles messages from the communicator
+     *
+     * @param message
+     */
+    public void receiveCommunication(String message) {
+        if (message.startsWith("HISCORES")) {
+            var scores = parseOnlineScores(message);
+            Platform.runLater(() -> {
+                onlineScores.setAll(scores);
+                onlineFetched = System.currentTimeMillis();
+                if (onlineRequest != null) {
+                    onlineRequest.complete(null);
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds a local score straight away and persists it in the background. Must be called on the FX thread
+     *
+     * @param score name and score
+     */
+    public void submitLocalScore(Pair<String, Integer> score) {
+        logger.info("Writing New HighScore To File");
+        insert(localScores, score);
+        highScore.set(localScores.get(0).getValue());
+        executor.execute(() -> {
+            try {
+                store.add(score.getKey(), score.getValue());
+            } catch (IOException e) {
+                logger.error("Unable to save score: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Sends a high score to the server and adds it to the cached online scores. Must be called on the FX thread
+     *
+     * @param score name and score
+     */
+    public void submitOnlineScore(Pair<String, Integer> score) {
+        communicator.send("HISCORE " + score.getKey() + score.getValue());
+        insert(onlineScores, score);
+    }
+
+    /**
+     * Get the local scores, highest first
+     *
+     * @return local scores
+     */
+    public SimpleListProperty<Pair<String, Integer>> getLocalScores() {
+        return localScores;
+    }
+
+    /**
+     * Get the online scores, highest first
+     *
+     * @return online scores
+     */
+    public SimpleListProperty<Pair<String, Integer>> getOnlineScores() {
+        return onlineScores;
+    }
+
+    /**
+     * Get the highest local score
+     *
+     * @return high score
+     */
+    public SimpleIntegerProperty getHighScore() {
+        return highScore;
+    }
+
+    /**
+     * Inserts a score in order and trims the list
+     *
+     * @param list
+     * @param score
+     */
+    private static void insert(SimpleListProperty<Pair<String, Integer>> list, Pair<String, Integer> score) {
+        int index = 0;
+        while (index < list.size() && comparator.compare(list.get(index), score) < 0) {
+            index++;
+        }
+        list.add(index, score);
+        if (list.size() > SCORES) {
+            list.remove(SCORES, list.size());
+        }
+    }
+
+    /**
+     * Parses a HISCORES message
+     *
+     * @param message
+     * @return online scores
+     */
+    private static ArrayList<Pair<String, Integer>> parseOnlineScores(String message) {
+        ArrayList<Pair<String, Integer>> scores = new ArrayList<>();
+
+        MessageParser.scores(message, entry -> scores.add(new Pair<>(entry.name() + ":", entry.score())));
+        scores.sort(comparator);
+        return scores;
+    }
+}
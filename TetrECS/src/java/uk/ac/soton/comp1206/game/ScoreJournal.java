@@ -0,0 +1,221 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * ScoreJournal is an append only, memory mapped log of submitted scores.
+ * <p>
+ * The file starts with a header holding a magic number and a generation. Each record after it is
+ * [payload length][score][name bytes][CRC32 of score and name], and the records end at the first zero length.
+ * A record that was only partly written when the game closed fails its checksum and is ignored, along with
+ * anything after it.
+ * <p>
+ * The generation is bumped every time the journal is reset after compaction, so a snapshot can record which
+ * generation it already contains.
+ */
+public class ScoreJournal {
+
+    private static final Logger logger = LogManager.getLogger(ScoreJournal.class);
+
+    /**
+     * Marks a file as a score journal
+     */
+    private static final int MAGIC = 0x54534A31;
+
+    /**
+     * Size of the magic number and generation
+     */
+    private static final int HEADER = Integer.BYTES + Long.BYTES;
+
+    /**
+     * Size of the mapped region
+     */
+    private static final int SIZE = 64 * 1024;
+
+    /**
+     * Longest name stored, in bytes
+     */
+    private static final int MAX_NAME = 256;
+
+    /**
+     * Receives records when the journal is replayed
+     */
+    public interface Replay {
+
+        /**
+         * Handle a stored score
+         *
+         * @param name
+         * @param score
+         */
+        public void score(String name, int score);
+    }
+
+    /**
+     * The mapped journal file
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The generation of the records currently in the journal
+     */
+    private long generation;
+
+    /**
+     * Position the next record is written at
+     */
+    private int end;
+
+    /**
+     * Number of records in the journal
+     */
+    private int records;
+
+    /**
+     * Open or create a journal file
+     *
+     * @param file journal file
+     * @throws IOException
+     */
+    public ScoreJournal(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            reset(0);
+        } else {
+            generation = buffer.getLong(Integer.BYTES);
+            scan(null);
+        }
+    }
+
+    /**
+     * Get the generation of the records currently in the journal
+     *
+     * @return generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the number of records in the journal
+     *
+     * @return record count
+     */
+    public int getRecords() {
+        return records;
+    }
+
+    /**
+     * Replays every valid record in order
+     *
+     * @param replay receiver for each record
+     */
+    public void replay(Replay replay) {
+        scan(replay);
+    }
+
+    /**
+     * Appends a score and forces it to disk. Names longer than the limit are cut on a character boundary
+     *
+     * @param name
+     * @param score
+     * @return false if the journal is full
+     */
+    public boolean append(String name, int score) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int nameLength = bytes.length;
+        if (nameLength > MAX_NAME) {
+            //Cut before the character that crosses the limit rather than through it
+            nameLength = MAX_NAME;
+            while (nameLength > 0 && (bytes[nameLength] & 0xC0) == 0x80) {
+                nameLength--;
+            }
+        }
+        int payload = Integer.BYTES + nameLength;
+        int size = Integer.BYTES + payload + Integer.BYTES;
+
+        //Leave room for the terminating zero length
+        if (end + size + Integer.BYTES > SIZE) {
+            return false;
+        }
+
+        CRC32 crc = new CRC32();
+        buffer.putInt(end + Integer.BYTES, score);
+        buffer.put(end + 2 * Integer.BYTES, bytes, 0, nameLength);
+        crc.update(buffer.slice(end + Integer.BYTES, payload));
+        buffer.putInt(end + Integer.BYTES + payload, (int) crc.getValue());
+        buffer.putInt(end + size, 0);
+
+        //Publish the length last so a torn write is never read as a full record
+        buffer.putInt(end, payload);
+        buffer.force();
+
+        end += size;
+        records++;
+        return true;
+    }
+
+    /**
+     * Empties the journal and starts a new generation
+     *
+     * @param generation the new generation
+     */
+    public void reset(long generation) {
+        logger.info("Resetting score journal to generation {}", generation);
+        this.generation = generation;
+        buffer.putInt(HEADER, 0);
+        buffer.putLong(Integer.BYTES, generation);
+        buffer.putInt(0, MAGIC);
+        buffer.force();
+        end = HEADER;
+        records = 0;
+    }
+
+    /**
+     * Walks the records, stopping at the end marker or the first bad record
+     *
+     * @param replay receiver for each record, or null to only find the end
+     */
+    private void scan(Replay replay) {
+        int position = HEADER;
+        int count = 0;
+        CRC32 crc = new CRC32();
+        while (position + Integer.BYTES <= SIZE) {
+            int payload = buffer.getInt(position);
+            int size = Integer.BYTES + payload + Integer.BYTES;
+            if (payload < Integer.BYTES || payload > Integer.BYTES + MAX_NAME || position + size > SIZE) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(buffer.slice(position + Integer.BYTES, payload));
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES + payload)) {
+                logger.warn("Ignoring damaged score journal record at {}", position);
+                break;
+            }
+
+            if (replay != null) {
+                byte[] name = new byte[payload - Integer.BYTES];
+                buffer.get(position + 2 * Integer.BYTES, name);
+                replay.score(new String(name, StandardCharsets.UTF_8), buffer.getInt(position + Integer.BYTES));
+            }
+            position += size;
+            count++;
+        }
+        end = position;
+        records = count;
+    }
+}
@@ -0,0 +1,350 @@
+package uk.ac.soton.comp1206.game;
+
+import javafx.util.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ScoreStore keeps the best local scores in memory, ordered highest first, and
+ * persists them to the scores file.
+ * <p>
+ * Only the top scores are kept, so inserting a score is O(log K) and the file
+ * never holds more than K lines of "name:score".
+ * <p>
+ * New scores are appended to a {@link ScoreJournal} next to the scores file, which is cheap and durable. The
+ * journal is compacted into the sorted scores file in the background. The first line of the scores file records
+ * the journal generation it already contains, so a crash between writing the file and resetting the journal
+ * never replays a score twice.
+ */
+public class ScoreStore {
+
+    private static final Logger logger = LogManager.getLogger(ScoreStore.class);
+
+    /**
+     * Number of journal records that triggers a background compaction
+     */
+    private static final int COMPACT_THRESHOLD = 32;
+
+    /**
+     * Background thread used to compact journals into their scores files
+     */
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ScoreCompactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Orders scores highest first, newer entries first on a tie
+     */
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt((Entry entry) -> entry.score)
+            .thenComparingLong(entry -> entry.sequence)
+            .reversed();
+
+    /**
+     * The file the scores are persisted to
+     */
+    private final File file;
+
+    /**
+     * Maximum number of scores kept
+     */
+    private final int capacity;
+
+    /**
+     * The top scores, sorted by ORDER
+     */
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+
+    /**
+     * Increasing counter used to keep ties in insertion order
+     */
+    private long sequence = 0;
+
+    /**
+     * Whether the file has been read yet
+     */
+    private boolean loaded = false;
+
+    /**
+     * Journal of scores added since the last compaction, or null if it could not be opened
+     */
+    private ScoreJournal journal;
+
+    /**
+     * Journal generation already contained in the scores file
+     */
+    private long snapshotGeneration = -1;
+
+    /**
+     * Whether a compaction is waiting to run
+     */
+    private boolean compactionScheduled = false;
+
+    /**
+     * Create a new score store backed by the given file
+     *
+     * @param file     scores file
+     * @param capacity number of scores to keep
+     */
+    public ScoreStore(File file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the scores, highest first
+     *
+     * @return list of name and score pairs
+     * @throws IOException
+     */
+    public synchronized ArrayList<Pair<String, Integer>> getScores() throws IOException {
+        load();
+        ArrayList<Pair<String, Integer>> list = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            list.add(new Pair<>(entry.name, entry.score));
+        }
+        return list;
+    }
+
+    /**
+     * Get the highest score
+     *
+     * @return highest score, or 0 if there are none
+     * @throws IOException
+     */
+    public synchronized int getHighScore() throws IOException {
+        load();
+        return entries.isEmpty() ? 0 : entries.first().score;
+    }
+
+    /**
+     * Checks if a score would make it into the store
+     *
+     * @param score
+     * @return true if the score would be kept
+     * @throws IOException
+     */
+    public synchronized boolean qualifies(int score) throws IOException {
+        load();
+        return entries.size() < capacity || score >= entries.last().score;
+    }
+
+    /**
+     * Adds a score, dropping the lowest one if the store is full, and journals
+     * it if it was kept
+     *
+     * @param name  name shown with the score
+     * @param score
+     * @return true if the score was kept
+     * @throws IOException
+     */
+    public synchronized boolean add(String name, int score) throws IOException {
+        load();
+        if (!insert(name, score)) {
+            return false;
+        }
+        if (journal == null) {
+            write();
+        } else if (!journal.append(name, score)) {
+            compact();
+        } else if (journal.getRecords() >= COMPACT_THRESHOLD) {
+            scheduleCompaction();
+        }
+        return true;
+    }
+
+    /**
+     * Writes the top scores to the scores file and empties the journal
+     *
+     * @throws IOException
+     */
+    public synchronized void compact() throws IOException {
+        compactionScheduled = false;
+        if (!loaded || journal == null) {
+            return;
+        }
+        logger.info("Compacting score journal");
+        snapshotGeneration = journal.getGeneration();
+        write();
+        journal.reset(snapshotGeneration + 1);
+    }
+
+    /**
+     * Compacts the journal on the background thread
+     */
+    private void scheduleCompaction() {
+        if (compactionScheduled) {
+            return;
+        }
+        compactionScheduled = true;
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                logger.error("Unable to compact scores: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Inserts a score into the in-memory top scores
+     *
+     * @param name
+     * @param score
+     * @return true if the score was kept
+     */
+    private boolean insert(String name, int score) {
+        if (!name.endsWith(":")) {
+            name = name + ":";
+        }
+        if (entries.size() >= capacity && score < entries.last().score) {
+            return false;
+        }
+        entries.add(new Entry(name, score, sequence++));
+        if (entries.size() > capacity) {
+            entries.pollLast();
+        }
+        return true;
+    }
+
+    /**
+     * Reads the scores file the first time it is needed, creating default
+     * scores if it does not exist, then replays any journal records it does
+     * not already contain
+     *
+     * @throws IOException
+     */
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!file.exists()) {
+            logger.info("Writing Default Scores");
+            int defaultScore = 10000;
+            for (int i = 0; i < capacity; i++) {
+                insert("Player" + i + ":", Math.max(defaultScore, 0));
+                defaultScore -= 1000;
+            }
+            write();
+        } else {
+            readSnapshot();
+        }
+
+        try {
+            journal = new ScoreJournal(new File(file.getPath() + ".journal"));
+        } catch (IOException e) {
+            logger.error("Unable to open score journal: {}", e.getMessage());
+            return;
+        }
+        if (journal.getGeneration() > snapshotGeneration) {
+            journal.replay(this::insert);
+            if (journal.getRecords() > 0) {
+                scheduleCompaction();
+            }
+        } else {
+            journal.reset(snapshotGeneration + 1);
+        }
+    }
+
+    /**
+     * Reads the scores file. Files holding more than the capacity are
+     * compacted straight away
+     *
+     * @throws IOException
+     */
+    private void readSnapshot() throws IOException {
+        logger.info("Loading Scores from {}", file.getAbsolutePath());
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    try {
+                        snapshotGeneration = Long.parseLong(line, 1, line.length(), 10);
+                    } catch (NumberFormatException e) {
+                        logger.warn("Skipping bad scores header: {}", line);
+                    }
+                    continue;
+                }
+                int split = line.lastIndexOf(':');
+                if (split <= 0) {
+                    continue;
+                }
+                try {
+                    insert(line.substring(0, split + 1), Integer.parseInt(line, split + 1, line.length(), 10));
+                    lines++;
+                } catch (NumberFormatException e) {
+                    logger.warn("Skipping bad score line: {}", line);
+                }
+            }
+        }
+        if (lines > entries.size()) {
+            logger.info("Compacting scores file");
+            write();
+        }
+    }
+
+    /**
+     * Writes the top scores to a temporary file, forces it to disk and moves it
+     * over the scores file, so a failed write never leaves a half written file behind
+     *
+     * @throws IOException
+     */
+    private void write() throws IOException {
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            if (snapshotGeneration >= 0) {
+                writer.write("#" + snapshotGeneration + "\n");
+            }
+            boolean first = true;
+            for (Entry entry : entries) {
+                if (!first) {
+                    writer.write('\n');
+                }
+                writer.write(entry.name);
+                writer.write(Integer.toString(entry.score));
+                first = false;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A single stored score
+     */
+    private static class Entry {
+        private final String name;
+        private final int score;
+        private final long sequence;
+
+        private Entry(String name, int score, long sequence) {
+            this.name = name;
+            this.score = score;
+            this.sequence = sequence;
+        }
+    }
+}
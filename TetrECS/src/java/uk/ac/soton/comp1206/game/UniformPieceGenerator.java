@@ -0,0 +1,14 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses every piece with the same chance, independently of the pieces before it
+ */
+public class UniformPieceGenerator implements PieceGenerator {
+
+    @Override
+    public int nextPiece(SplittableRandom random, int level) {
+        return random.nextInt(GamePiece.PIECES);
+    }
+}
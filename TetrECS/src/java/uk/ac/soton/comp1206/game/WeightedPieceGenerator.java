@@ -0,0 +1,57 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Favours pieces with fewer blocks on early levels, evening out to a uniform choice by level RAMP.
+ */
+public class WeightedPieceGenerator implements PieceGenerator {
+
+    /**
+     * Level from which every piece is equally likely
+     */
+    public static final int RAMP = 5;
+
+    /**
+     * Running totals of the piece weights for each level up to RAMP
+     */
+    private final int[][] cumulative = new int[RAMP + 1][GamePiece.PIECES];
+
+    /**
+     * Create a new generator, working out the weights of every piece
+     */
+    public WeightedPieceGenerator() {
+        int[] blocks = new int[GamePiece.PIECES];
+        int most = 0;
+        for (int piece = 0; piece < GamePiece.PIECES; piece++) {
+            for (int[] line : GamePiece.createPiece(piece).getBlocks()) {
+                for (int value : line) {
+                    if (value != 0) {
+                        blocks[piece]++;
+                    }
+                }
+            }
+            most = Math.max(most, blocks[piece]);
+        }
+
+        for (int level = 0; level <= RAMP; level++) {
+            int total = 0;
+            for (int piece = 0; piece < GamePiece.PIECES; piece++) {
+                total += RAMP + (RAMP - level) * (most - blocks[piece]);
+                cumulative[level][piece] = total;
+            }
+        }
+    }
+
+    @Override
+    public int nextPiece(SplittableRandom random, int level) {
+        int[] weights = cumulative[Math.min(Math.max(level, 0), RAMP)];
+        int pick = random.nextInt(weights[weights.length - 1]);
+        for (int piece = 0; piece < weights.length; piece++) {
+            if (pick < weights[piece]) {
+                return piece;
+            }
+        }
+        return weights.length - 1;
+    }
+}
@@ -0,0 +1,61 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * Zobrist hashing of which cells of a board are filled.
+ * <p>
+ * Every cell has a fixed random key, and a board's hash is the XOR of the keys of its filled cells, starting from a
+ * key for the board's size so that boards of different sizes never look alike. Filling or emptying a cell just XORs
+ * its key in or out, so the hash is kept up to date in constant time. The colour of a block does not affect play, so
+ * only whether a cell is filled counts.
+ * <p>
+ * Sizes and shapes draw their keys from their own salted streams, so they never reuse a cell's key.
+ */
+public final class Zobrist {
+
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private static final long SIZE_SALT = 0x5A17E5C0FFEE1DEAL;
+
+    private static final long SHAPE_SALT = 0x3C6EF372FE94F82BL;
+
+    private Zobrist() {
+    }
+
+    /**
+     * Get the key of a cell. The same cell index always has the same key, on any board
+     *
+     * @param index cell index, y * cols + x
+     * @return key
+     */
+    public static long key(int index) {
+        return mix((index + 1) * GOLDEN);
+    }
+
+    /**
+     * Get the key of a board size, which an empty board of that size hashes to
+     *
+     * @param cols
+     * @param rows
+     * @return key
+     */
+    public static long size(int cols, int rows) {
+        return mix(SIZE_SALT + (((long) cols << 32) | rows) * GOLDEN);
+    }
+
+    /**
+     * Get the key of a piece shape
+     *
+     * @param shapeId id from {@link PlacementIndex#shapeId(Bitboard.Shape)}
+     * @return key
+     */
+    public static long shape(int shapeId) {
+        return mix(SHAPE_SALT + (shapeId + 1) * GOLDEN);
+    }
+
+    private static long mix(long z) {
+        //SplitMix64 finaliser, so keys need no table and work for any board size
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
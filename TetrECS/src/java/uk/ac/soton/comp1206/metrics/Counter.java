@@ -0,0 +1,61 @@
+package uk.ac.soton.comp1206.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free counter
+ */
+public class Counter {
+
+    private final String name;
+
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Create a new counter at zero
+     *
+     * @param name metric name
+     */
+    public Counter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the metric name
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds one
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Adds an amount
+     *
+     * @param amount
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * Get the current count
+     *
+     * @return count
+     */
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s %d", name, get());
+    }
+}
@@ -0,0 +1,141 @@
+package uk.ac.soton.comp1206.metrics;
+
+import javafx.animation.AnimationTimer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+/**
+ * The FrameMonitor watches the JavaFX pulse and records the time between frames.
+ * <p>
+ * Slow work on the UI thread is wrapped as a named section. When a frame runs over budget it is blamed on the
+ * longest section that ran since the previous frame, so stutters can be traced back to what caused them. The
+ * last minute of frames is kept so it can be exported as a CSV histogram.
+ * <p>
+ * Everything here runs on the UI thread.
+ */
+public final class FrameMonitor {
+
+    private static final Logger logger = LogManager.getLogger(FrameMonitor.class);
+
+    /**
+     * Time for one frame at 60 frames per second
+     */
+    public static final long FRAME_BUDGET_NS = 1_000_000_000L / 60;
+
+    /**
+     * Frames longer than this are counted as over budget, leaving room for timer jitter
+     */
+    private static final long OVER_BUDGET_NS = FRAME_BUDGET_NS * 3 / 2;
+
+    /**
+     * Number of frames kept for the rolling histogram
+     */
+    private static final int WINDOW = 3600;
+
+    private static final Histogram frameInterval = Metrics.histogram("frame.interval");
+
+    private static final Counter overBudget = Metrics.counter("frame.overBudget");
+
+    private static final long[] window = new long[WINDOW];
+
+    private static int windowSize = 0;
+
+    private static int windowNext = 0;
+
+    /**
+     * Histograms of each section, by name
+     */
+    private static final HashMap<String, Histogram> sections = new HashMap<>();
+
+    private static String longestSection;
+
+    private static long longestTime = 0;
+
+    private static long lastPulse = 0;
+
+    private static AnimationTimer timer;
+
+    private FrameMonitor() {
+    }
+
+    /**
+     * Starts watching the pulse
+     */
+    public static void start() {
+        if (timer != null) {
+            return;
+        }
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                pulse(now);
+            }
+        };
+        timer.start();
+    }
+
+    /**
+     * Ends a section of work started at the given time
+     *
+     * @param section name of the work, such as "LobbyScene.showChannels"
+     * @param start   System.nanoTime() when the work started
+     */
+    public static void end(String section, long start) {
+        long time = System.nanoTime() - start;
+        sections.computeIfAbsent(section, name -> Metrics.histogram("section." + name)).record(time);
+        if (time > longestTime) {
+            longestTime = time;
+            longestSection = section;
+        }
+    }
+
+    /**
+     * Records a frame
+     *
+     * @param now pulse time
+     */
+    private static void pulse(long now) {
+        if (lastPulse != 0) {
+            long interval = now - lastPulse;
+            frameInterval.record(interval);
+            window[windowNext] = interval;
+            windowNext = (windowNext + 1) % WINDOW;
+            windowSize = Math.min(windowSize + 1, WINDOW);
+
+            if (interval > OVER_BUDGET_NS) {
+                overBudget.increment();
+                String cause = longestSection == null ? "unattributed" : longestSection;
+                Metrics.counter("frame.jank." + cause).increment();
+                logger.debug("Frame took {}, longest section {}", Histogram.format(interval), cause);
+            }
+        }
+        lastPulse = now;
+        longestSection = null;
+        longestTime = 0;
+    }
+
+    /**
+     * Writes a histogram of the last minute of frames as CSV
+     *
+     * @param file file to overwrite
+     */
+    public static void exportCsv(File file) {
+        var rolling = new Histogram("frame.interval.rolling");
+        for (int i = 0; i < windowSize; i++) {
+            rolling.record(window[i]);
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            rolling.writeCsv(writer);
+            logger.info("Exported {} frames to {}", windowSize, file);
+        } catch (IOException e) {
+            logger.warn("Unable to export frames: {}", e.getMessage());
+        }
+    }
+}
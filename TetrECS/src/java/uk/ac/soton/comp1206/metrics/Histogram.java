@@ -0,0 +1,215 @@
+package uk.ac.soton.comp1206.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of durations in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets in the style of an HDR histogram: every power of two is split into 16
+ * equal buckets, so any value is reported within about 6% while the whole range of a long fits in under a thousand
+ * counters. Recording is a couple of atomic increments and never allocates.
+ */
+public class Histogram {
+
+    /**
+     * Bits of each value kept below its highest set bit
+     */
+    private static final int SUB_BITS = 4;
+
+    /**
+     * Buckets per power of two
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Buckets needed to cover every positive long
+     */
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final String name;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Create a new empty histogram
+     *
+     * @param name metric name
+     */
+    public Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the metric name
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a duration
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Records the time since a start taken from System.nanoTime()
+     *
+     * @param start start time
+     */
+    public void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    /**
+     * Get the number of values recorded
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the mean of the values recorded
+     *
+     * @return mean in nanoseconds
+     */
+    public double getMean() {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    /**
+     * Get the largest value recorded
+     *
+     * @return max in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value at a percentile, rounded up to the top of its bucket
+     *
+     * @param percentile between 0 and 100
+     * @return value in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        long values = count.sum();
+        if (values == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * values));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Writes every non empty bucket as CSV, with its range in nanoseconds
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("lower_ns,upper_ns,count\n");
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = counts.get(i);
+            if (bucket > 0) {
+                out.append(String.valueOf(lowerBound(i))).append(',')
+                        .append(String.valueOf(upperBound(i))).append(',')
+                        .append(String.valueOf(bucket)).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Summarises the histogram on one line
+     *
+     * @return summary
+     */
+    @Override
+    public String toString() {
+        return String.format("%-28s n=%-8d mean=%-9s p50=%-9s p99=%-9s max=%s", name, getCount(),
+                format(getMean()), format(getPercentile(50)), format(getPercentile(99)), format(getMax()));
+    }
+
+    /**
+     * Formats nanoseconds in a readable unit
+     *
+     * @param nanos
+     * @return formatted duration
+     */
+    static String format(double nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format("%.2fms", nanos / 1_000_000);
+        }
+        return String.format("%.1fus", nanos / 1_000);
+    }
+
+    /**
+     * Finds the bucket for a value
+     *
+     * @param value
+     * @return bucket index
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Finds the smallest value in a bucket
+     *
+     * @param index bucket index
+     * @return lowest value
+     */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS - 1 + SUB_BITS;
+        int sub = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub)) << (exponent - SUB_BITS);
+    }
+
+    /**
+     * Finds the largest value in a bucket
+     *
+     * @param index bucket index
+     * @return highest value
+     */
+    static long upperBound(int index) {
+        return index + 1 >= BUCKETS ? Long.MAX_VALUE : lowerBound(index + 1) - 1;
+    }
+}
@@ -0,0 +1,111 @@
+package uk.ac.soton.comp1206.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics is the registry of every counter and histogram in the game.
+ * <p>
+ * Hot paths look their metrics up once and keep them in a static field, so recording is only the cost of the
+ * metric itself. The registry can print a report for the overlay and write it to a file periodically.
+ */
+public final class Metrics {
+
+    private static final Logger logger = LogManager.getLogger(Metrics.class);
+
+    private static final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private static final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService dumper;
+
+    private Metrics() {
+    }
+
+    /**
+     * Get or create a histogram
+     *
+     * @param name metric name
+     * @return histogram
+     */
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * Get or create a counter
+     *
+     * @param name metric name
+     * @return counter
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Reports every metric, one per line, ordered by name
+     *
+     * @return report
+     */
+    public static String report() {
+        var builder = new StringBuilder();
+        for (Histogram histogram : new TreeMap<>(histograms).values()) {
+            builder.append(histogram).append('\n');
+        }
+        for (Counter counter : new TreeMap<>(counters).values()) {
+            builder.append(counter).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the report to a file on a background thread every period
+     *
+     * @param file    file to overwrite with the report
+     * @param seconds period between writes
+     */
+    public static synchronized void startDump(File file, long seconds) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsDump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes the report to a file
+     *
+     * @param file file to overwrite
+     */
+    public static void dump(File file) {
+        try {
+            Files.writeString(file.toPath(), report(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Unable to write metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get every histogram by name
+     *
+     * @return histograms
+     */
+    public static Map<String, Histogram> getHistograms() {
+        return histograms;
+    }
+}
@@ -0,0 +1,56 @@
+package uk.ac.soton.comp1206.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The StartupTimer measures how long the game takes from the process being launched to the menu being usable.
+ * <p>
+ * Startup is mostly spent loading and linking classes, which an application class-data-sharing archive avoids.
+ * Running with {@code -Dtetrecs.train=true} makes a training run that opens the menu and a challenge, then exits,
+ * so an archive can be made from it and used on later launches:
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=tetrecs.jsa -Dtetrecs.train=true -p ... -m uk.ac.soton.comp1206/uk.ac.soton.comp1206.Launcher
+ * java -XX:SharedArchiveFile=tetrecs.jsa -p ... -m uk.ac.soton.comp1206/uk.ac.soton.comp1206.Launcher
+ * </pre>
+ * {@code mvn -Pjlink,cds verify} in the client module does the same for the runtime image, and its
+ * {@code bin/tetrecs} launcher uses the archive. Each launch logs and records {@code startup.menu}, and the build
+ * launches the image once without the archive and once with it so the two can be compared.
+ */
+public final class StartupTimer {
+
+    private static final Logger logger = LogManager.getLogger(StartupTimer.class);
+
+    /**
+     * Whether this is a training run for the class-data-sharing archive
+     */
+    public static final boolean TRAINING = Boolean.getBoolean("tetrecs.train");
+
+    private static final Histogram menuTime = Metrics.histogram("startup.menu");
+
+    private static boolean reported = false;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Records the time since launch, the first time the menu is ready
+     */
+    public static void menuReady() {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        var launched = ProcessHandle.current().info().startInstant();
+        if (launched.isEmpty()) {
+            logger.info("Menu ready, launch time unknown");
+            return;
+        }
+        var elapsed = Duration.between(launched.get(), Instant.now());
+        menuTime.record(elapsed.toNanos());
+        logger.info("Menu ready {}ms after launch{}", elapsed.toMillis(), TRAINING ? " (training run)" : "");
+    }
+}
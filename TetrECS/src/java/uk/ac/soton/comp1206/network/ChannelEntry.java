@@ -0,0 +1,9 @@
+package uk.ac.soton.comp1206.network;
+
+/**
+ * A single channel from a CHANNELS message
+ *
+ * @param name channel name
+ */
+public record ChannelEntry(String name) {
+}
@@ -38,7 +38,7 @@ public class Communicator {
             //Connect to the server
             ws = socketFactory.createSocket(server);
             ws.connect();
-            logger.info("Connected to " + server);
+            logger.info("Connected to {}", server);
 
             //When a message is received, call the receive method
             ws.addListener(new WebSocketAdapter() {
@@ -49,7 +49,7 @@ public class Communicator {
 
                 @Override
                 public void onPingFrame(WebSocket webSocket, WebSocketFrame webSocketFrame) throws Exception {
-                    logger.info("Ping? Pong!");
+                    logger.debug("Ping? Pong!");
                 }
             });
 
@@ -91,7 +91,7 @@ public class Communicator {
      * @param message Message to send
      */
     public void send(String message) {
-        logger.info("Sending message: " + message);
+        logger.debug("Sending message: {}", message);
 
         ws.sendText(message);
     }
@@ -119,7 +119,7 @@ public class Communicator {
      * @param message   the message that was received
      */
     private void receive(WebSocket websocket, String message) {
-        logger.info("Received: " + message);
+        logger.debug("Received: {}", message);
 
         for (CommunicationsListener handler : handlers) {
             handler.receiveCommunication(message);
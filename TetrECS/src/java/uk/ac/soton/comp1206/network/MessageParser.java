@@ -0,0 +1,154 @@
+package uk.ac.soton.comp1206.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.function.Consumer;
+
+/**
+ * MessageParser reads messages from the server in a single pass over the text, without splitting them into
+ * intermediate strings or arrays.
+ * <p>
+ * Every message starts with a command word followed by a space. Multi line messages hold one entry per line
+ * with fields separated by colons. Only the strings kept in the resulting entries, such as names, are created.
+ */
+public final class MessageParser {
+
+    private static final Logger logger = LogManager.getLogger(MessageParser.class);
+
+    private MessageParser() {
+    }
+
+    /**
+     * Parses a SCORES ("name:score:lives") or HISCORES ("name:score") message
+     *
+     * @param message  the message received
+     * @param consumer receives each score in order
+     */
+    public static void scores(CharSequence message, Consumer<ScoreEntry> consumer) {
+        int length = message.length();
+        int start = body(message);
+        while (start < length) {
+            int end = lineEnd(message, start);
+            int nameEnd = indexOf(message, ':', start, end);
+            if (nameEnd == end) {
+                logger.warn("Skipping score line with no score in: {}", message);
+            } else if (nameEnd > start) {
+                int scoreEnd = indexOf(message, ':', nameEnd + 1, end);
+                try {
+                    String name = message.subSequence(start, nameEnd).toString();
+                    int score = Integer.parseInt(message, nameEnd + 1, scoreEnd, 10);
+                    int lives = -1;
+                    boolean dead = false;
+                    if (scoreEnd < end) {
+                        if (regionMatches(message, scoreEnd + 1, end, "DEAD")) {
+                            dead = true;
+                        } else {
+                            lives = Integer.parseInt(message, scoreEnd + 1, end, 10);
+                        }
+                    }
+                    consumer.accept(new ScoreEntry(name, score, lives, dead));
+                } catch (NumberFormatException e) {
+                    logger.warn("Skipping bad score line in: {}", message);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Parses a CHANNELS message, one channel name per line
+     *
+     * @param message  the message received
+     * @param consumer receives each channel in order
+     */
+    public static void channels(CharSequence message, Consumer<ChannelEntry> consumer) {
+        int length = message.length();
+        int start = body(message);
+        while (start < length) {
+            int end = lineEnd(message, start);
+            if (end > start) {
+                consumer.accept(new ChannelEntry(message.subSequence(start, end).toString()));
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Parses a PIECE message
+     *
+     * @param message the message received
+     * @return the piece, or null if the message holds no valid number
+     */
+    public static PieceId piece(CharSequence message) {
+        int start = body(message);
+        int end = lineEnd(message, start);
+        try {
+            return new PieceId(Integer.parseInt(message, start, end, 10));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            logger.warn("Bad piece message: {}", message);
+            return null;
+        }
+    }
+
+    /**
+     * Finds where the body starts, after the command word and its space
+     *
+     * @param message
+     * @return index of the first body character
+     */
+    private static int body(CharSequence message) {
+        int space = indexOf(message, ' ', 0, message.length());
+        return Math.min(space + 1, message.length());
+    }
+
+    /**
+     * Finds the end of the line starting at the given index
+     *
+     * @param message
+     * @param start
+     * @return index of the newline, or the message length
+     */
+    private static int lineEnd(CharSequence message, int start) {
+        return indexOf(message, '\n', start, message.length());
+    }
+
+    /**
+     * Finds a character within a range
+     *
+     * @param message
+     * @param c     character to find
+     * @param start first index searched
+     * @param end   index after the last one searched
+     * @return index of the character, or end if it is not found
+     */
+    private static int indexOf(CharSequence message, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (message.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Checks if a range holds exactly the given text
+     *
+     * @param message
+     * @param start
+     * @param end
+     * @param text
+     * @return true if the range matches
+     */
+    private static boolean regionMatches(CharSequence message, int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (message.charAt(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,9 @@
+package uk.ac.soton.comp1206.network;
+
+/**
+ * The piece number sent in a PIECE message
+ *
+ * @param value piece number
+ */
+public record PieceId(int value) {
+}
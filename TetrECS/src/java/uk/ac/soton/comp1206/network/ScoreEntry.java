@@ -0,0 +1,12 @@
+package uk.ac.soton.comp1206.network;
+
+/**
+ * A single line of a SCORES or HISCORES message
+ *
+ * @param name  player name
+ * @param score player score
+ * @param lives lives left, or -1 if the message does not say
+ * @param dead  whether the player is out of the game
+ */
+public record ScoreEntry(String name, int score, int lives, boolean dead) {
+}
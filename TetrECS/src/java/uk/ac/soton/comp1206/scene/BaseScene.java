@@ -26,6 +26,11 @@ public abstract class BaseScene {
 
     private static final Logger logger = LogManager.getLogger(BaseScene.class);
 
+    /**
+     * The game stylesheet, resolved once. JavaFX parses a stylesheet once per URL and shares it between scenes
+     */
+    private static final String STYLESHEET = BaseScene.class.getResource("/style/game.css").toExternalForm();
+
     /**
      * Create a new scene, passing in the GameWindow the scene will be displayed in
      *
@@ -53,7 +58,7 @@ public abstract class BaseScene {
     public Scene setScene() {
         var previous = gameWindow.getScene();
         Scene scene = new Scene(root, previous.getWidth(), previous.getHeight(), Color.BLACK);
-        scene.getStylesheets().add(getClass().getResource("/style/game.css").toExternalForm());
+        scene.getStylesheets().add(STYLESHEET);
         this.scene = scene;
 
         this.getScene().setOnKeyPressed(event -> {
@@ -75,6 +80,15 @@ public abstract class BaseScene {
         return this.scene;
     }
 
+    /**
+     * Whether the scene has been built and can be shown again without rebuilding
+     *
+     * @return true if built
+     */
+    public boolean isBuilt() {
+        return this.scene != null;
+    }
+
     /**
      * Animates the text provided by scaling it indefinitely
      *
@@ -82,7 +96,7 @@ public abstract class BaseScene {
      * @param scale
      */
     public void beginAnimation(Text text, double scale) {
-        logger.info("Animating");
+        logger.debug("Animating");
         ScaleTransition transition = new ScaleTransition(Duration.seconds(1.45), text);
         transition.setAutoReverse(true);
         transition.setCycleCount(ScaleTransition.INDEFINITE);
@@ -101,7 +115,7 @@ public abstract class BaseScene {
      * @param background
      */
     public void backgroundRect(StackPane stackPane, Rectangle background) {
-        logger.info("Creating Background");
+        logger.debug("Creating Background");
         background.setFill(Color.rgb(30, 30, 30, 0.75));
         DropShadow dropShadow = new DropShadow();
         dropShadow.setColor(Color.rgb(75, 0, 130, 0.65));
@@ -3,6 +3,7 @@ package uk.ac.soton.comp1206.scene;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -23,14 +24,22 @@ import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.*;
+import uk.ac.soton.comp1206.game.Bitboard;
+import uk.ac.soton.comp1206.game.Bot;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.GameSnapshot;
 import uk.ac.soton.comp1206.game.Multimedia;
+import uk.ac.soton.comp1206.game.PracticeGame;
+import uk.ac.soton.comp1206.game.ReplayGame;
+import uk.ac.soton.comp1206.game.ReplayLog;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -73,6 +82,56 @@ public class ChallengeScene extends BaseScene {
      */
     protected int[] aim = new int[]{0, 0};
 
+    /**
+     * Directory every finished single player game is saved to
+     */
+    public static final File REPLAYS = new File("replays");
+
+    /**
+     * Where a game in progress is saved when the window is closed
+     */
+    public static final File SAVE = new File("savegame.bin");
+
+    /**
+     * Saved game to carry on, or null to start a new one
+     */
+    protected GameSnapshot resume;
+
+    /**
+     * Game being played back, or null when playing normally
+     */
+    protected ReplayLog replay;
+
+    /**
+     * Whether this is a practice game, which can undo and redo and does not count towards the scores
+     */
+    protected boolean practice = false;
+
+    /**
+     * Plays back the replay events at their recorded times
+     */
+    protected Timeline replayTimeline;
+
+    /**
+     * Playback speed, from 1x to 16x
+     */
+    protected int replaySpeed = 1;
+
+    /**
+     * Asks the bot for a move at a steady pace while autoplay is on, otherwise null
+     */
+    protected Timeline autoplay;
+
+    /**
+     * Plays for the player when autoplay is on
+     */
+    protected final Bot bot = new Bot();
+
+    /**
+     * Whether the bot is still searching for its last move
+     */
+    private boolean thinking = false;
+
     /**
      * Create a new Single Player challenge scene
      *
@@ -83,12 +142,45 @@ public class ChallengeScene extends BaseScene {
         logger.info("Creating Menu Scene");
     }
 
+    /**
+     * Create a new challenge scene that plays back a recorded game
+     *
+     * @param gameWindow the Game Window
+     * @param replay     the recorded game
+     */
+    public ChallengeScene(GameWindow gameWindow, ReplayLog replay) {
+        this(gameWindow);
+        this.replay = replay;
+    }
+
+    /**
+     * Create a new challenge scene that carries on a saved game
+     *
+     * @param gameWindow the Game Window
+     * @param resume     the saved game
+     */
+    public ChallengeScene(GameWindow gameWindow, GameSnapshot resume) {
+        this(gameWindow, resume.practice());
+        this.resume = resume;
+    }
+
+    /**
+     * Create a new challenge scene for a practice game, where placements can be undone
+     *
+     * @param gameWindow the Game Window
+     * @param practice   true for a practice game
+     */
+    public ChallengeScene(GameWindow gameWindow, boolean practice) {
+        this(gameWindow);
+        this.practice = practice;
+    }
+
     /**
      * Build the Challenge window
      */
     @Override
     public void build() {
-        logger.info("Building " + this.getClass().getName());
+        logger.info("Building {}", this.getClass().getName());
 
         setupGame();
 
@@ -102,6 +194,7 @@ public class ChallengeScene extends BaseScene {
 
         board = new GameBoard(game.getGrid(), gameWindow.getWidth() / 2, gameWindow.getWidth() / 2);
         enableHighlight();
+        board.setPreviewPiece(() -> game.getCurrentPiece());
         mainPane.setCenter(board);
 
         //Multiplayer UI
@@ -198,13 +291,10 @@ public class ChallengeScene extends BaseScene {
             highScoreTitle.getStyleClass().add("score");
             rightVBox.getChildren().add(highScoreTitle);
 
-            try {
-                var highScore = new Label(getHighScore());
-                highScore.getStyleClass().add("level");
-                rightVBox.getChildren().add(highScore);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            var highScore = new Label();
+            highScore.textProperty().bind(gameWindow.getScoreCache().getHighScore().asString());
+            highScore.getStyleClass().add("level");
+            rightVBox.getChildren().add(highScore);
         }
 
         var levelTitle = new Label("Level");
@@ -239,32 +329,34 @@ public class ChallengeScene extends BaseScene {
         board.setOnBlockClick(this::blockClicked);
 
         //Gives the next pieces to the piece boards to show
-        game.setNextPieceListener(this::nextPiece);
+        game.addNextPieceListener(this::nextPiece);
 
         //Handles line getting cleared so it can animate them
-        game.setLineClearedListener(this::lineCleared);
+        game.addLineClearedListener(this::lineCleared);
 
         //Listens for time bar ending to reset it
-        game.setGameLoopListener(this::gameLoop);
+        game.addGameLoopListener(this::gameLoop);
 
         //Checks if lives are 0
-        game.setLivesListener(this::checkLives);
+        game.addLivesListener(this::checkLives);
 
         //Rotates piece if main game board is clicked
         board.setOnMouseClicked(event -> {
-            if (event.getButton() == MouseButton.SECONDARY) {
-                logger.info("Rotating piece: " + game.getCurrentPiece().getName());
-                game.getCurrentPiece().rotate();
+            if (event.getButton() == MouseButton.SECONDARY && replay == null) {
+                logger.debug("Rotating piece: {}", game.getCurrentPiece().getName());
+                game.rotateCurrentPiece(1);
                 mainPieceBoard.showPiece(game.getCurrentPiece());
+                board.refreshPreview();
             }
         });
 
         //Rotates piece if piece board is clicked
         mainPieceBoard.setOnMouseClicked(event -> {
-            if (event.getButton() == MouseButton.PRIMARY) {
-                logger.info("Rotating piece: " + game.getCurrentPiece().getName());
-                game.getCurrentPiece().rotate();
+            if (event.getButton() == MouseButton.PRIMARY && replay == null) {
+                logger.debug("Rotating piece: {}", game.getCurrentPiece().getName());
+                game.rotateCurrentPiece(1);
                 mainPieceBoard.showPiece(game.getCurrentPiece());
+                board.refreshPreview();
             }
         });
     }
@@ -275,7 +367,9 @@ public class ChallengeScene extends BaseScene {
      * @param gameBlock the Game Block that was clocked
      */
     private void blockClicked(GameBlock gameBlock) {
-        game.blockClicked(gameBlock);
+        if (replay == null) {
+            game.blockClicked(gameBlock);
+        }
     }
 
 
@@ -285,8 +379,16 @@ public class ChallengeScene extends BaseScene {
     public void setupGame() {
         logger.info("Starting a new challenge");
 
-        //Start new game
-        game = new Game(5, 5);
+        //Start new game, carry on a saved one, or play back a recorded one
+        int cols = resume == null ? SettingsScene.BOARD_SIZE : resume.cols();
+        int rows = resume == null ? SettingsScene.BOARD_SIZE : resume.rows();
+        if (replay != null) {
+            game = new ReplayGame(replay, false);
+        } else if (practice) {
+            game = new PracticeGame(cols, rows);
+        } else {
+            game = new Game(cols, rows);
+        }
     }
 
     /**
@@ -295,8 +397,88 @@ public class ChallengeScene extends BaseScene {
     @Override
     public void initialise() {
         logger.info("Initialising Challenge");
-        game.start();
-        scene.setOnKeyPressed(this::keyActions);
+        if (resume == null) {
+            game.start();
+        } else {
+            game.resume(resume);
+        }
+        if (replay == null) {
+            scene.setOnKeyPressed(this::keyActions);
+        } else {
+            scene.setOnKeyPressed(this::replayKeyActions);
+            startReplay();
+        }
+    }
+
+    /**
+     * Schedules every event of the replay at its recorded time
+     */
+    private void startReplay() {
+        var replayGame = (ReplayGame) game;
+        replayTimeline = new Timeline();
+        replay.forEach(new ReplayLog.Handler() {
+            @Override
+            public void place(long tick, int x, int y) {
+                replayTimeline.getKeyFrames().add(new KeyFrame(Duration.millis(tick), e -> replayGame.place(tick, x, y)));
+            }
+
+            @Override
+            public void rotate(long tick, int amount) {
+                replayTimeline.getKeyFrames().add(new KeyFrame(Duration.millis(tick), e -> {
+                    replayGame.rotate(tick, amount);
+                    mainPieceBoard.showPiece(game.getCurrentPiece());
+                    board.refreshPreview();
+                }));
+            }
+
+            @Override
+            public void swap(long tick) {
+                replayTimeline.getKeyFrames().add(new KeyFrame(Duration.millis(tick), e -> {
+                    replayGame.swap(tick);
+                    mainPieceBoard.showPiece(game.getCurrentPiece());
+                    board.refreshPreview();
+                    nextPieceBoard.showPiece(game.getFollowingPiece());
+                }));
+            }
+
+            @Override
+            public void expire(long tick) {
+                replayTimeline.getKeyFrames().add(new KeyFrame(Duration.millis(tick), e -> replayGame.expire(tick)));
+            }
+        });
+        replayTimeline.setRate(replaySpeed);
+        replayTimeline.play();
+    }
+
+    /**
+     * Keyboard controls while watching a replay: + and - change the speed
+     *
+     * @param event
+     */
+    private void replayKeyActions(KeyEvent event) {
+        if (event.getCode() == KeyCode.ESCAPE) {
+            logger.info("Leaving replay");
+            replayTimeline.stop();
+            gameWindow.startMenu();
+        } else if ((event.getCode() == KeyCode.EQUALS || event.getCode() == KeyCode.ADD) && replaySpeed < 16) {
+            setReplaySpeed(replaySpeed * 2);
+        } else if ((event.getCode() == KeyCode.MINUS || event.getCode() == KeyCode.SUBTRACT) && replaySpeed > 1) {
+            setReplaySpeed(replaySpeed / 2);
+        }
+    }
+
+    /**
+     * Changes how fast the replay plays
+     *
+     * @param speed
+     */
+    private void setReplaySpeed(int speed) {
+        logger.info("Replay speed {}x", speed);
+        replaySpeed = speed;
+        replayTimeline.setRate(speed);
+        if (timeLine != null) {
+            timeLine.setRate(speed);
+        }
     }
 
     /**
@@ -307,6 +489,7 @@ public class ChallengeScene extends BaseScene {
      */
     private void nextPiece(GamePiece gamePiece, GamePiece followingPiece) {
         mainPieceBoard.showPiece(game.getCurrentPiece());
+        board.refreshPreview();
         nextPieceBoard.showPiece(game.getFollowingPiece());
     }
 
@@ -326,7 +509,7 @@ public class ChallengeScene extends BaseScene {
      * @param time
      */
     private void gameLoop(int time) {
-        logger.info("Begin TimerBar");
+        logger.debug("Begin TimerBar");
         if (timeLine != null)
             timeLine.stop();
         timeLine = new Timeline(new KeyFrame(Duration.ZERO, new KeyValue(this.timeBar.fillProperty(), Color.GREEN.brighter())),
@@ -334,6 +517,7 @@ public class ChallengeScene extends BaseScene {
                 new KeyFrame(new Duration((double) time / 1.8), new KeyValue(this.timeBar.fillProperty(), Color.DARKGOLDENROD)),
                 new KeyFrame(new Duration((double) time / 1.2), new KeyValue(this.timeBar.fillProperty(), Color.RED)),
                 new KeyFrame(new Duration(time), new KeyValue(this.timeBar.widthProperty(), 0)));
+        timeLine.setRate(replaySpeed);
         timeLine.play();
     }
 
@@ -343,10 +527,137 @@ public class ChallengeScene extends BaseScene {
     protected void checkLives() {
         if (game.getLives().get() < 0) {
             Multimedia.musicPlayer.stop();
+            if (replay != null) {
+                replayTimeline.stop();
+                gameWindow.startMenu();
+                return;
+            }
+            stopAutoplay();
+            if (practice) {
+                game.stop();
+                gameWindow.startMenu();
+                return;
+            }
+            saveReplay();
             gameWindow.startScores(game);
         }
     }
 
+    /**
+     * Asks the hint engine where to play the current piece
+     * and outlines that block once it answers
+     */
+    protected void showHint() {
+        var snapshot = Bitboard.of(game.getGrid());
+        var shape = Bitboard.Shape.of(game.getCurrentPiece());
+        gameWindow.getHintEngine().hint(snapshot, shape).thenAccept(hint -> Platform.runLater(() -> {
+            if (hint == null) {
+                Multimedia.setAudioPlayer("incorrect.wav");
+                return;
+            }
+            //Only show the hint if the board and piece are still the same
+            if (snapshot.equals(Bitboard.of(game.getGrid()))
+                    && shape.equals(Bitboard.Shape.of(game.getCurrentPiece()))) {
+                logger.debug("Hint: {}", hint);
+                board.getBlock(hint.x(), hint.y()).showHint();
+            }
+        }));
+    }
+
+    /**
+     * Makes the bot's choice of move straight away, on the FX thread
+     */
+    public void playBotMove() {
+        bot.play(game);
+    }
+
+    /**
+     * Turns the bot playing for the player on or off
+     */
+    protected void toggleAutoplay() {
+        if (autoplay != null) {
+            stopAutoplay();
+            return;
+        }
+        logger.info("Autoplay on");
+        autoplay = new Timeline(new KeyFrame(Duration.millis(600), e -> autoplayMove()));
+        autoplay.setCycleCount(Timeline.INDEFINITE);
+        autoplay.play();
+    }
+
+    /**
+     * Stops the bot playing for the player
+     */
+    protected void stopAutoplay() {
+        if (autoplay != null) {
+            logger.info("Autoplay off");
+            autoplay.stop();
+            autoplay = null;
+        }
+    }
+
+    /**
+     * Searches for the bot's next move in the background, then makes it
+     * if the pieces have not changed in the meantime
+     */
+    private void autoplayMove() {
+        if (thinking) {
+            return;
+        }
+        thinking = true;
+        var current = game.getCurrentPiece();
+        var following = game.getFollowingPiece();
+        var board = Bitboard.of(game.getGrid());
+        var currentShapes = Bitboard.Shape.rotations(current);
+        var followingShapes = Bitboard.Shape.rotations(following);
+
+        CompletableFuture.supplyAsync(() -> bot.search(board, currentShapes, followingShapes))
+                .whenComplete((move, error) -> Platform.runLater(() -> {
+                    thinking = false;
+                    if (error != null) {
+                        logger.error("Bot failed to find a move", error);
+                    }
+                    if (move == null || autoplay == null || game.getCurrentPiece() != current
+                            || game.getFollowingPiece() != following
+                            || !Bitboard.Shape.of(current).equals(currentShapes[0])) {
+                        return;
+                    }
+                    Bot.apply(game, move);
+                    mainPieceBoard.showPiece(game.getCurrentPiece());
+                    this.board.refreshPreview();
+                    nextPieceBoard.showPiece(game.getFollowingPiece());
+                }));
+    }
+
+    /**
+     * Saves the game in progress so it can be carried on next time. Replays and finished games are not saved
+     */
+    public void saveGame() {
+        if (replay != null || game.getLives().get() < 0) {
+            return;
+        }
+        try {
+            GameSnapshot.of(game).save(SAVE);
+        } catch (IOException e) {
+            logger.warn("Unable to save game: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the replay of the game just played
+     */
+    protected void saveReplay() {
+        var log = game.getReplayLog();
+        if (log == null || log.isEmpty()) {
+            return;
+        }
+        try {
+            log.save(REPLAYS);
+        } catch (IOException e) {
+            logger.warn("Unable to save replay: {}", e.getMessage());
+        }
+    }
+
     /**
      * Keyboard controls
      *
@@ -354,52 +665,73 @@ public class ChallengeScene extends BaseScene {
      */
     protected void keyActions(KeyEvent event) {
         if (event.getCode() == KeyCode.E || event.getCode() == KeyCode.C || event.getCode() == KeyCode.CLOSE_BRACKET) {
-            logger.info("Rotating piece: " + game.getCurrentPiece().getName());
+            logger.debug("Rotating piece: {}", game.getCurrentPiece().getName());
             game.rotateCurrentPiece(1);
             mainPieceBoard.showPiece(game.getCurrentPiece());
+            board.refreshPreview();
         } else if (event.getCode() == KeyCode.Q || event.getCode() == KeyCode.Z || event.getCode() == KeyCode.OPEN_BRACKET) {
-            logger.info("Rotating piece: " + game.getCurrentPiece().getName());
+            logger.debug("Rotating piece: {}", game.getCurrentPiece().getName());
             game.rotateCurrentPiece(3);
             mainPieceBoard.showPiece(game.getCurrentPiece());
+            board.refreshPreview();
         } else if (event.getCode() == KeyCode.SPACE || event.getCode() == KeyCode.R) {
-            logger.info("Swapping pieces");
+            logger.debug("Swapping pieces");
             game.swapCurrentPiece();
             mainPieceBoard.showPiece(game.getCurrentPiece());
+            board.refreshPreview();
             nextPieceBoard.showPiece(game.getFollowingPiece());
+        } else if (event.getCode() == KeyCode.U && game instanceof PracticeGame practiceGame) {
+            if (practiceGame.undo()) {
+                board.refreshPreview();
+            }
+        } else if (event.getCode() == KeyCode.Y && game instanceof PracticeGame practiceGame) {
+            if (practiceGame.redo()) {
+                board.refreshPreview();
+            }
+        } else if (event.getCode() == KeyCode.B) {
+            toggleAutoplay();
+        } else if (event.getCode() == KeyCode.H) {
+            showHint();
         } else if (event.getCode() == KeyCode.ESCAPE) {
             logger.info("Going back to menu");
+            stopAutoplay();
+            saveReplay();
             gameWindow.startMenu();
             logger.info("Cancelling Timer");
-            game.getTimer().cancel();
+            game.stop();
         } else if (event.getCode() == KeyCode.ENTER || event.getCode() == KeyCode.X) {
-                logger.info("Placing piece " + game.getCurrentPiece().getName());
+                logger.debug("Placing piece {}", game.getCurrentPiece().getName());
                 game.blockClicked(board.getBlock(aim[0], aim[1]));
         } else if ((event.getCode() == KeyCode.W || event.getCode() == KeyCode.UP) && aim[1] > 0) {
             if (!board.highlighted) {
-                logger.info("Moving aim up");
+                logger.debug("Moving aim up");
                 aim[1]--;
                 board.getBlock(aim[0], aim[1] + 1).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
-        } else if ((event.getCode() == KeyCode.S || event.getCode() == KeyCode.DOWN) && aim[1] < 4) {
+        } else if ((event.getCode() == KeyCode.S || event.getCode() == KeyCode.DOWN) && aim[1] < game.getRows() - 1) {
             if (!board.highlighted) {
-                logger.info("Moving aim down");
+                logger.debug("Moving aim down");
                 aim[1]++;
                 board.getBlock(aim[0], aim[1] - 1).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
         } else if ((event.getCode() == KeyCode.A || event.getCode() == KeyCode.LEFT) && aim[0] > 0) {
             if (!board.highlighted) {
-                logger.info("Moving aim left");
+                logger.debug("Moving aim left");
                 aim[0]--;
                 board.getBlock(aim[0] + 1, aim[1]).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
-        } else if ((event.getCode() == KeyCode.D || event.getCode() == KeyCode.RIGHT) && aim[0] < 4) {
+        } else if ((event.getCode() == KeyCode.D || event.getCode() == KeyCode.RIGHT) && aim[0] < game.getCols() - 1) {
             if (!board.highlighted) {
-                logger.info("Moving aim right");
+                logger.debug("Moving aim right");
                 aim[0]++;
                 board.getBlock(aim[0] - 1, aim[1]).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
         } else if (event.getCode() == KeyCode.T) {
@@ -421,15 +753,4 @@ public class ChallengeScene extends BaseScene {
         }
     }
 
-    /**
-     * Gets the local high score and displays
-     *
-     * @return local high score
-     * @throws IOException
-     */
-    private String getHighScore() throws IOException {
-        logger.info("Getting High Score");
-        return ScoresScene.loadScores().get(0).getValue().toString();
-    }
-
 }
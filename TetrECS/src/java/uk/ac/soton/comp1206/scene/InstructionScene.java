@@ -2,7 +2,6 @@ package uk.ac.soton.comp1206.scene;
 
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -13,6 +12,7 @@ import uk.ac.soton.comp1206.component.PieceBoard;
 import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.ui.ResourceLoader;
 
 /**
  * Instructions scene shows controls and dynamically generated pieces used
@@ -34,7 +34,7 @@ public class InstructionScene extends BaseScene {
 
     @Override
     public void build() {
-        logger.info("Building " + this.getClass().getName());
+        logger.info("Building {}", this.getClass().getName());
 
         root = new GamePane(gameWindow.getWidth(), gameWindow.getHeight());
 
@@ -53,8 +53,7 @@ public class InstructionScene extends BaseScene {
         instructionsTitle.getStyleClass().add("title");
         pieces.getChildren().add(instructionsTitle);
 
-        var image = new Image(InstructionScene.class.getResource("/images/Instructions1.png").toExternalForm());
-        var instructions = new ImageView(image);
+        var instructions = new ImageView(ResourceLoader.image("Instructions1.png"));
         instructions.setFitHeight(300);
         instructions.setFitWidth(500);
         pieces.getChildren().add(instructions);
@@ -0,0 +1,72 @@
+package uk.ac.soton.comp1206.scene;
+
+import javafx.beans.value.ObservableDoubleValue;
+import javafx.geometry.Pos;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.ui.GamePane;
+import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.ui.ResourceLoader;
+
+/**
+ * Loading scene shows the logo and a progress bar while resources are loaded at startup.
+ * <p>
+ * It uses the game stylesheet like every other scene, so the stylesheet is parsed while loading rather than when
+ * the menu first appears.
+ */
+public class LoadingScene extends BaseScene {
+
+    private static final Logger logger = LogManager.getLogger(LoadingScene.class);
+
+    private final ObservableDoubleValue progress;
+
+    /**
+     * Create a new loading scene
+     *
+     * @param gameWindow the Game Window
+     * @param progress   fraction of resources loaded
+     */
+    public LoadingScene(GameWindow gameWindow, ObservableDoubleValue progress) {
+        super(gameWindow);
+        this.progress = progress;
+        logger.info("Creating Loading Scene");
+    }
+
+    @Override
+    public void build() {
+        logger.info("Building {}", this.getClass().getName());
+
+        root = new GamePane(gameWindow.getWidth(), gameWindow.getHeight());
+
+        var mainPane = new BorderPane();
+        mainPane.setMaxWidth(gameWindow.getWidth());
+        mainPane.setMaxHeight(gameWindow.getHeight());
+        mainPane.getStyleClass().add("menu");
+        root.getChildren().add(mainPane);
+
+        var box = new VBox();
+        box.setAlignment(Pos.CENTER);
+        box.setSpacing(30);
+        mainPane.setCenter(box);
+
+        var logo = new ImageView(ResourceLoader.image("logo2.png"));
+        logo.setPreserveRatio(true);
+        logo.setFitWidth(gameWindow.getWidth() / 3.0);
+        box.getChildren().add(logo);
+
+        var bar = new ProgressBar();
+        bar.setPrefWidth(gameWindow.getWidth() / 2.0);
+        bar.progressProperty().bind(progress);
+        box.getChildren().add(bar);
+    }
+
+    @Override
+    public void initialise() {
+        //Nothing can be done until loading finishes
+        scene.setOnKeyPressed(null);
+    }
+}
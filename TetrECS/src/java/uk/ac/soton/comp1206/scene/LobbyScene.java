@@ -21,7 +21,9 @@ import javafx.scene.text.TextFlow;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.game.Multimedia;
+import uk.ac.soton.comp1206.metrics.FrameMonitor;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.MessageParser;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
@@ -70,7 +72,7 @@ public class LobbyScene extends BaseScene {
 
     @Override
     public void build() {
-        logger.info("Building " + this.getClass().getName());
+        logger.info("Building {}", this.getClass().getName());
 
         root = new GamePane(gameWindow.getWidth(), gameWindow.getHeight());
 
@@ -205,7 +207,7 @@ public class LobbyScene extends BaseScene {
         TimerTask timerTask = new TimerTask() {
             @Override
             public void run() {
-                logger.info("Getting Channel List");
+                logger.debug("Getting Channel List");
                 communicator.send("LIST");
             }
         };
@@ -218,10 +220,11 @@ public class LobbyScene extends BaseScene {
      * @param message
      */
     private void showChannels(String message) {
-        logger.info("Showing Channel List");
-        String[] channels = message.replace("CHANNELS ", "").split("\n");
+        logger.debug("Showing Channel List");
+        long start = System.nanoTime();
         channelList.getChildren().clear();
-        for (String channel : channels) {
+        MessageParser.channels(message, entry -> {
+            String channel = entry.name();
             Text channelName = new Text(channel + "\n");
             channelName.getStyleClass().add("channelItem");
 
@@ -239,7 +242,8 @@ public class LobbyScene extends BaseScene {
                 }
             });
             channelList.getChildren().add(channelName);
-        }
+        });
+        FrameMonitor.end("LobbyScene.showChannels", start);
     }
 
     /**
@@ -409,7 +413,7 @@ public class LobbyScene extends BaseScene {
         TimerTask timerTask = new TimerTask() {
             @Override
             public void run() {
-                logger.info("Checking if i am host");
+                logger.debug("Checking if i am host");
                 startGame.setVisible(imHost);
             }
         };
@@ -426,7 +430,7 @@ public class LobbyScene extends BaseScene {
         TimerTask timerTask = new TimerTask() {
             @Override
             public void run() {
-                logger.info("Getting Users List");
+                logger.debug("Getting Users List");
                 communicator.send("USERS");
             }
         };
@@ -440,7 +444,7 @@ public class LobbyScene extends BaseScene {
      * @param message
      */
     private void showUsers(String message) {
-        logger.info("Showing Users");
+        logger.debug("Showing Users");
         userList.getChildren().clear();
 
         String[] users = message.replace("USERS ", "").split("\n");
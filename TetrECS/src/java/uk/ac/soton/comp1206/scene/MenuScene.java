@@ -9,10 +9,15 @@ import javafx.scene.text.Text;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
+import uk.ac.soton.comp1206.game.GameSnapshot;
 import uk.ac.soton.comp1206.game.Multimedia;
+import uk.ac.soton.comp1206.game.ReplayLog;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
+import java.io.IOException;
+import java.nio.file.Files;
+
 /**
  * The main menu of the game. Provides a gateway to the rest of the game.
  */
@@ -20,6 +25,11 @@ public class MenuScene extends BaseScene {
 
     private static final Logger logger = LogManager.getLogger(MenuScene.class);
 
+    /**
+     * Only enabled when there is a saved game to carry on
+     */
+    private Button resume;
+
     /**
      * Create a new menu scene
      *
@@ -35,7 +45,7 @@ public class MenuScene extends BaseScene {
      */
     @Override
     public void build() {
-        logger.info("Building " + this.getClass().getName());
+        logger.info("Building {}", this.getClass().getName());
 
         root = new GamePane(gameWindow.getWidth(), gameWindow.getHeight());
 
@@ -73,6 +83,24 @@ public class MenuScene extends BaseScene {
 
         instructions.setOnAction(this::showInstructions);
 
+        resume = new Button("Resume");
+        resume.setPrefWidth(205);
+        resume.getStyleClass().add("menuItem");
+
+        resume.setOnAction(this::resumeGame);
+
+        var practice = new Button("Practice");
+        practice.setPrefWidth(205);
+        practice.getStyleClass().add("menuItem");
+
+        practice.setOnAction(this::startPractice);
+
+        var replay = new Button("Replay");
+        replay.setPrefWidth(205);
+        replay.getStyleClass().add("menuItem");
+
+        replay.setOnAction(this::showReplay);
+
         var settings = new Button("Settings");
         settings.setPrefWidth(205);
         settings.getStyleClass().add("menuItem");
@@ -84,7 +112,7 @@ public class MenuScene extends BaseScene {
 
         exit.setOnAction(this::exitGame);
 
-        buttonBox.getChildren().addAll(play, multiplayer, instructions, settings, exit);
+        buttonBox.getChildren().addAll(play, resume, practice, multiplayer, instructions, replay, settings, exit);
     }
 
     /**
@@ -93,6 +121,8 @@ public class MenuScene extends BaseScene {
      */
     @Override
     public void initialise() {
+        //The menu is reused, so check for a saved game each time it is shown
+        resume.setDisable(!ChallengeScene.SAVE.exists());
         Multimedia.setMusicPlayer("ocean.mp3");
     }
 
@@ -108,6 +138,37 @@ public class MenuScene extends BaseScene {
         Multimedia.setMusicPlayer("menu1.3.wav");
     }
 
+    /**
+     * Handle when the Resume button is pressed
+     * and carry on the game saved when the window was last closed
+     *
+     * @param event event
+     */
+    private void resumeGame(ActionEvent event) {
+        try {
+            var snapshot = GameSnapshot.load(ChallengeScene.SAVE);
+            Files.delete(ChallengeScene.SAVE.toPath());
+            Multimedia.setAudioPlayer("gamestart.wav");
+            gameWindow.resumeGame(snapshot);
+            Multimedia.setMusicPlayer("menu1.3.wav");
+        } catch (IOException e) {
+            logger.warn("Unable to resume game: {}", e.getMessage());
+            Multimedia.setAudioPlayer("incorrect.wav");
+        }
+    }
+
+    /**
+     * Handle when the Practice button is pressed
+     * and launch a practice game
+     *
+     * @param event event
+     */
+    private void startPractice(ActionEvent event) {
+        Multimedia.setAudioPlayer("gamestart.wav");
+        gameWindow.startPractice();
+        Multimedia.setMusicPlayer("menu1.3.wav");
+    }
+
     /**
      * Handle when the multiplayer button is pressed
      * and show lobby scene
@@ -130,6 +191,28 @@ public class MenuScene extends BaseScene {
         gameWindow.startInstructions();
     }
 
+    /**
+     * Handle when the replay button is pressed
+     * and play back the last game
+     *
+     * @param event event
+     */
+    private void showReplay(ActionEvent event) {
+        var file = ReplayLog.latest(ChallengeScene.REPLAYS);
+        if (file == null) {
+            Multimedia.setAudioPlayer("incorrect.wav");
+            return;
+        }
+        try {
+            var replay = ReplayLog.load(file);
+            Multimedia.setAudioPlayer("buttonclick1.wav");
+            gameWindow.startReplay(replay);
+        } catch (IOException e) {
+            logger.warn("Unable to load replay {}: {}", file, e.getMessage());
+            Multimedia.setAudioPlayer("incorrect.wav");
+        }
+    }
+
     /**
      * Handle when the settings button is pressed
      * and show settings scene
@@ -148,8 +231,7 @@ public class MenuScene extends BaseScene {
      * @param event event
      */
     private void exitGame(ActionEvent event) {
-        Multimedia.setAudioPlayer("buttonclick1.wav");
-        Multimedia.audioPlayer.setOnEndOfMedia(this::shutdown);
+        Multimedia.setAudioPlayer("buttonclick1.wav", this::shutdown);
     }
 
     /**
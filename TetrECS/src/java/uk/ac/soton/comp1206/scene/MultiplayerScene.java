@@ -1,23 +1,20 @@
 package uk.ac.soton.comp1206.scene;
 
 import javafx.application.Platform;
-import javafx.beans.property.SimpleListProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.game.Multimedia;
 import uk.ac.soton.comp1206.game.MultiplayerGame;
+import uk.ac.soton.comp1206.game.RankedScores;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.MessageParser;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashSet;
 
 
 public class MultiplayerScene extends ChallengeScene {
@@ -27,13 +24,15 @@ public class MultiplayerScene extends ChallengeScene {
     private final Communicator communicator;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
 
-    protected ArrayList<Pair<String, Integer>> scores = new ArrayList<>();
-    protected ObservableList<Pair<String, Integer>> scoresList = FXCollections.observableArrayList(scores);
-    protected SimpleListProperty<Pair<String, Integer>> scoreListWrapper = new SimpleListProperty<>(scoresList);
+    /**
+     * Player scores by name, passed on to the scores scene
+     */
+    protected final RankedScores playerScores = new RankedScores();
 
-    protected ArrayList<Pair<String, Integer>> deadScores = new ArrayList<>();
-    protected ObservableList<Pair<String, Integer>> deadScoresList = FXCollections.observableArrayList(deadScores);
-    protected SimpleListProperty<Pair<String, Integer>> deadScoresListWrapper = new SimpleListProperty<>(deadScoresList);
+    /**
+     * Player scores shown on the leaderboard, with dead players marked
+     */
+    protected final RankedScores leaderboardScores = new RankedScores();
 
 
     /**
@@ -54,6 +53,8 @@ public class MultiplayerScene extends ChallengeScene {
     @Override
     public void build() {
         super.build();
+        leaderBoard.setScoreList(leaderboardScores.getScores());
+        leaderBoard.createScores();
         msgField.setOnKeyPressed(keyEvent -> {
             if (keyEvent.getCode().equals(KeyCode.ENTER)) {
                 this.communicator.send("MSG  " + msgField.getText());
@@ -66,6 +67,13 @@ public class MultiplayerScene extends ChallengeScene {
         game = new MultiplayerGame(5,5,communicator);
     }
 
+    /**
+     * Multiplayer games can't be carried on later, as the server has moved on
+     */
+    @Override
+    public void saveGame() {
+    }
+
     /**
      * Setup communicator
      */
@@ -122,37 +130,24 @@ public class MultiplayerScene extends ChallengeScene {
     }
 
     /**
-     * Shows players competing on the right hand side
+     * Updates the players competing on the right hand side. Only
+     * players whose score or state changed are moved
      *
      * @param scores
      */
     private void showScores(String scores) {
-        leaderBoard.getChildren().clear();
-        scoreListWrapper.clear();
-        deadScoresListWrapper.clear();
-
-        for (String playerScore : scores.split("\n")) {
-            playerScore = playerScore.replace("SCORES ","");
-
-            Pair<String,Integer> pair;
-            if (playerScore.split(":")[2].equals("DEAD")) {
-                pair = new Pair<>("DEAD" + ":", Integer.valueOf(playerScore.split(":")[1]));
-            } else {
-                pair = new Pair<>(playerScore.split(":")[0] + ":", Integer.valueOf(playerScore.split(":")[1]));
-            }
-            deadScoresListWrapper.add(pair);
+        var players = new HashSet<String>();
 
+        MessageParser.scores(scores, entry -> {
+            String player = entry.name();
+            players.add(player);
 
-            pair = new Pair<>(playerScore.split(":")[0] + ":", Integer.valueOf(playerScore.split(":")[1]));
-            scoreListWrapper.add(pair);
-        }
-
-        Comparator<Pair<String, Integer>> comparator = (o1, o2) -> o2.getValue().compareTo(o1.getValue());
-        scoreListWrapper.sort(comparator);
-        deadScoresListWrapper.sort(comparator);
+            playerScores.update(player, player + ":", entry.score());
+            leaderboardScores.update(player, entry.dead() ? "DEAD:" : player + ":", entry.score());
+        });
 
-        leaderBoard.setScoreList(deadScoresListWrapper);
-        leaderBoard.createScores();
+        playerScores.retain(players);
+        leaderboardScores.retain(players);
     }
 
     /**
@@ -167,7 +162,7 @@ public class MultiplayerScene extends ChallengeScene {
     protected void checkLives() {
         if (game.getLives().get() < 0) {
             Multimedia.musicPlayer.stop();
-            gameWindow.startScores(game, scoreListWrapper, "online");
+            gameWindow.startScores(game, playerScores.getScores(), "online");
             communicator.send("DIE");
         }
     }
@@ -175,17 +170,20 @@ public class MultiplayerScene extends ChallengeScene {
     @Override
     protected void keyActions(KeyEvent event) {
         if (event.getCode() == KeyCode.E || event.getCode() == KeyCode.C || event.getCode() == KeyCode.CLOSE_BRACKET) {
-            logger.info("Rotating piece: " + game.getCurrentPiece().getName());
+            logger.debug("Rotating piece: {}", game.getCurrentPiece().getName());
             game.rotateCurrentPiece(1);
             mainPieceBoard.showPiece(game.getCurrentPiece());
+            board.refreshPreview();
         } else if (event.getCode() == KeyCode.Q || event.getCode() == KeyCode.Z || event.getCode() == KeyCode.OPEN_BRACKET) {
-            logger.info("Rotating piece: " + game.getCurrentPiece().getName());
+            logger.debug("Rotating piece: {}", game.getCurrentPiece().getName());
             game.rotateCurrentPiece(3);
             mainPieceBoard.showPiece(game.getCurrentPiece());
+            board.refreshPreview();
         } else if (event.getCode() == KeyCode.SPACE || event.getCode() == KeyCode.R) {
-            logger.info("Swapping pieces");
+            logger.debug("Swapping pieces");
             game.swapCurrentPiece();
             mainPieceBoard.showPiece(game.getCurrentPiece());
+            board.refreshPreview();
             nextPieceBoard.showPiece(game.getFollowingPiece());
         } else if (event.getCode() == KeyCode.ESCAPE) {
             logger.info("Going back to menu");
@@ -195,35 +193,39 @@ public class MultiplayerScene extends ChallengeScene {
             game.getTimer().cancel();
         } else if (event.getCode() == KeyCode.ENTER || event.getCode() == KeyCode.X) {
             if (!chatting) {
-                logger.info("Placing piece " + game.getCurrentPiece().getName());
+                logger.debug("Placing piece {}", game.getCurrentPiece().getName());
                 game.blockClicked(board.getBlock(aim[0], aim[1]));
             }
         } else if ((event.getCode() == KeyCode.W || event.getCode() == KeyCode.UP) && aim[1] > 0) {
             if (!board.highlighted) {
-                logger.info("Moving aim up");
+                logger.debug("Moving aim up");
                 aim[1]--;
                 board.getBlock(aim[0], aim[1] + 1).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
-        } else if ((event.getCode() == KeyCode.S || event.getCode() == KeyCode.DOWN) && aim[1] < 4) {
+        } else if ((event.getCode() == KeyCode.S || event.getCode() == KeyCode.DOWN) && aim[1] < game.getRows() - 1) {
             if (!board.highlighted) {
-                logger.info("Moving aim down");
+                logger.debug("Moving aim down");
                 aim[1]++;
                 board.getBlock(aim[0], aim[1] - 1).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
         } else if ((event.getCode() == KeyCode.A || event.getCode() == KeyCode.LEFT) && aim[0] > 0) {
             if (!board.highlighted) {
-                logger.info("Moving aim left");
+                logger.debug("Moving aim left");
                 aim[0]--;
                 board.getBlock(aim[0] + 1, aim[1]).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
-        } else if ((event.getCode() == KeyCode.D || event.getCode() == KeyCode.RIGHT) && aim[0] < 4) {
+        } else if ((event.getCode() == KeyCode.D || event.getCode() == KeyCode.RIGHT) && aim[0] < game.getCols() - 1) {
             if (!board.highlighted) {
-                logger.info("Moving aim right");
+                logger.debug("Moving aim right");
                 aim[0]++;
                 board.getBlock(aim[0] - 1, aim[1]).paint();
+                board.preview(aim[0], aim[1]);
                 board.getBlock(aim[0], aim[1]).setHighlight();
             }
         } else if (event.getCode() == KeyCode.T) {
@@ -5,8 +5,6 @@ import javafx.animation.RotateTransition;
 import javafx.animation.SequentialTransition;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleListProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -25,13 +23,12 @@ import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.ScoreList;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.Multimedia;
-import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.game.ScoreCache;
+import uk.ac.soton.comp1206.metrics.FrameMonitor;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
-import java.io.*;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ScoresScene displays a game over animation
@@ -40,20 +37,20 @@ import java.util.Comparator;
 public class ScoresScene extends BaseScene {
 
     private static final Logger logger = LogManager.getLogger(ScoresScene.class);
-    private final Communicator communicator;
 
-    protected Game game;
+    private final ScoreCache scoreCache;
 
-    protected String type;
+    /**
+     * Completed once the scores needed by this scene are loaded
+     */
+    private CompletableFuture<Void> scoresReady;
 
-    protected ArrayList<Pair<String, Integer>> scores;
+    protected Game game;
 
-    protected ObservableList<Pair<String, Integer>> scoresList;
+    protected String type;
 
     protected SimpleListProperty<Pair<String, Integer>> scoreListWrapper;
 
-    protected ObservableList<Pair<String, Integer>> remoteScores;
-
     protected SimpleListProperty<Pair<String, Integer>> remoteScoresWrapper;
 
     /**
@@ -66,7 +63,7 @@ public class ScoresScene extends BaseScene {
         super(gameWindow);
         logger.info("Creating Scores Scene");
         this.game = finalGame;
-        this.communicator = gameWindow.getCommunicator();
+        this.scoreCache = gameWindow.getScoreCache();
     }
 
     /**
@@ -79,43 +76,20 @@ public class ScoresScene extends BaseScene {
         super(gameWindow);
         logger.info("Creating Scores Scene");
         this.game = finalGame;
-        this.communicator = gameWindow.getCommunicator();
+        this.scoreCache = gameWindow.getScoreCache();
         this.type = type;
         scoreListWrapper = loadedScores;
     }
 
     @Override
     public void build() {
-        logger.info("Building " + this.getClass().getName());
-
-        //Listener to check for high scores coming in
-        communicator.addListener((message) -> {
-            if (message.startsWith("HISCORES"))
-                Platform.runLater(() -> this.loadOnlineScores(message));
-
-        });
-
-        //Sends message to retrieve high scores
-        communicator.send("HISCORES");
-
-        //Delay to make sure scores are loaded in
-        try {
-            Thread.sleep(110);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        logger.info("Building {}", this.getClass().getName());
 
         root = new GamePane(gameWindow.getWidth(), gameWindow.getHeight());
 
-        //Setups and load scores
+        //Setups scores and refreshes the online scores if they are out of date
         setupScores();
-        if (type == null) {
-            try {
-                scoreListWrapper.addAll(loadScores());
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        scoresReady = CompletableFuture.allOf(scoreCache.getLocalLoaded(), scoreCache.requestOnlineScores());
 
         var scorePane = new BorderPane();
         scorePane.setMaxWidth(gameWindow.getWidth());
@@ -154,7 +128,8 @@ public class ScoresScene extends BaseScene {
 
         SequentialTransition sequentialTransition = new SequentialTransition(gameOverTitle, rotateTransition, fadeTransition);
         sequentialTransition.play();
-        sequentialTransition.setOnFinished(event -> buildAllUi(scorePane));
+        sequentialTransition.setOnFinished(event ->
+                scoresReady.thenRun(() -> Platform.runLater(() -> buildAllUi(scorePane))));
     }
 
     /**
@@ -166,6 +141,7 @@ public class ScoresScene extends BaseScene {
      * @param scorePane
      */
     private void buildAllUi(BorderPane scorePane) {
+        long start = System.nanoTime();
         //Checks only online scores for multiplayer
         if (type != null) {
             if (checkScore(remoteScoresWrapper) != -1) {
@@ -183,6 +159,7 @@ public class ScoresScene extends BaseScene {
                 buildScoresUI(scorePane);
             }
         }
+        FrameMonitor.end("ScoresScene.buildAllUi", start);
     }
 
     /**
@@ -237,23 +214,11 @@ public class ScoresScene extends BaseScene {
             };
             var pair = new Pair<>(userName, localScore);
             switch (type) {
-                case "local" -> {
-                    scoreListWrapper.set(checkScore(scoreListWrapper), pair);
-                    try {
-                        submitLocalHighScore(pair);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-                case "online" -> writeOnlineScore(pair);
+                case "local" -> scoreCache.submitLocalScore(pair);
+                case "online" -> scoreCache.submitOnlineScore(pair);
                 case "both" -> {
-                    scoreListWrapper.set(checkScore(scoreListWrapper), pair);
-                    try {
-                        submitLocalHighScore(pair);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                    writeOnlineScore(pair);
+                    scoreCache.submitLocalScore(pair);
+                    scoreCache.submitOnlineScore(pair);
                 }
             }
             scoreBox.getChildren().removeAll(scoreBox, enterTitle, inputField, submit);
@@ -337,109 +302,10 @@ public class ScoresScene extends BaseScene {
      * Sets up the class fields to monitor the scores
      */
     private void setupScores() {
-        scores = new ArrayList<>();
-
-        scoresList = FXCollections.observableArrayList(scores);
-
         if (type == null)
-        scoreListWrapper = new SimpleListProperty<>(scoresList);
-    }
-
-    /**
-     * Reads the scores file or creates a default one
-     * and then orders the list and loads the scores
-     *
-     * @return list
-     */
-    protected static ArrayList<Pair<String, Integer>> loadScores() throws IOException {
-        logger.info("Loading Scores");
-        ArrayList<Pair<String, Integer>> list = new ArrayList<>();
-        File file = new File("scores.txt");
-        logger.info("FILES PATH IS " + file.getAbsolutePath());
-        if (!file.exists()) {
-            writeScores();
-            file = new File("scores.txt");
-        }
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String line = reader.readLine();
-        while (line != null) {
-            String[] lineArray = {line.split(":")[0], line.split(":")[1]};
-            list.add(new Pair<>(lineArray[0] + ":", Integer.valueOf(lineArray[1])));
-            line = reader.readLine();
-        }
-        reader.close();
-
-        Comparator<Pair<String, Integer>> comparator = (o1, o2) -> o2.getValue().compareTo(o1.getValue());
-        list.sort(comparator);
+        scoreListWrapper = scoreCache.getLocalScores();
 
-        return list;
-    }
-
-    /**
-     * Creates a default scores file
-     */
-    protected static void writeScores() throws IOException {
-        logger.info("Writing Default Scores");
-        File scoresFile = new File("scores.txt");
-        logger.info(scoresFile.getAbsolutePath());
-        scoresFile.createNewFile();
-        Writer writer = new FileWriter(scoresFile);
-        int defaultScore = 10000;
-        for (int i = 0; i < 10; i++) {
-            if (i == 9) {
-                writer.write("Player" + i + ":" + defaultScore);
-            } else {
-                writer.write("Player" + i + ":" + defaultScore + "\n");
-            }
-            defaultScore -= 1000;
-        }
-        writer.close();
-    }
-
-    /**
-     * Retrieves online scores
-     *
-     * @param message
-     */
-    private void loadOnlineScores(String message) {
-        ArrayList<Pair<String, Integer>> onlineScores = new ArrayList<>();
-        remoteScores = FXCollections.observableArrayList(onlineScores);
-        remoteScoresWrapper = new SimpleListProperty<>(remoteScores);
-
-        for (String line : message.split("\n")) {
-            String user = line.split(":")[0].replace("HISCORES ", "") + ":";
-            Integer score = Integer.valueOf(line.split(":")[1]);
-
-            Pair<String, Integer> pair = new Pair(user, score);
-            remoteScoresWrapper.add(pair);
-        }
-    }
-
-    /**
-     * Send high score to online server
-     * @param score
-     */
-    private void writeOnlineScore(Pair<String, Integer> score) {
-        communicator.send("HISCORE " + score.toString().replace("=", ""));
-
-        remoteScoresWrapper.add(score);
-        Comparator<Pair<String, Integer>> comparator = (o1, o2) -> o2.getValue().compareTo(o1.getValue());
-        remoteScoresWrapper.sort(comparator);
-
-    }
-
-    /**
-     * Writes high score to local file
-     *
-     * @param score
-     * @throws IOException
-     */
-    private void submitLocalHighScore(Pair<String, Integer> score) throws IOException {
-        logger.info("Writing New HighScore To File");
-        File scoresFile = new File("scores.txt");
-        Writer writer = new FileWriter(scoresFile, true);
-        writer.write("\n" + score.toString().replace("=", ""));
-        writer.close();
+        remoteScoresWrapper = scoreCache.getOnlineScores();
     }
 
 }
@@ -11,6 +11,7 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.Multimedia;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
@@ -23,6 +24,7 @@ public class SettingsScene extends BaseScene {
     private static final Logger logger = LogManager.getLogger(SettingsScene.class);
     public static double MUSIC_BASE = 0.1;
     public static double SFX_BASE = 0.2;
+    public static int BOARD_SIZE = 5;
 
     /**
      * Create a new settings scene, passing in the GameWindow the scene will be displayed in
@@ -35,7 +37,7 @@ public class SettingsScene extends BaseScene {
 
     @Override
     public void build() {
-        logger.info("Building " + this.getClass().getName());
+        logger.info("Building {}", this.getClass().getName());
 
         root = new GamePane(gameWindow.getWidth(), gameWindow.getHeight());
 
@@ -109,9 +111,31 @@ public class SettingsScene extends BaseScene {
         //Listener for the SFX slider
         SFXSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
             Multimedia.SFXVolume = (double) newValue;
-            Multimedia.audioPlayer.setVolume(Multimedia.SFXVolume);
+            if (Multimedia.audioPlayer != null) {
+                Multimedia.audioPlayer.setVolume(Multimedia.SFXVolume);
+            }
             SFX_BASE = (double) newValue;
         });
+
+        //Text for board size slider
+        var boardSize = new Text("Challenge Board: " + BOARD_SIZE + "x" + BOARD_SIZE);
+        boardSize.getStyleClass().add("chat");
+        settingsBox.getChildren().add(boardSize);
+
+        //Board size slider, up to the largest board the game supports
+        var boardSlider = new Slider(5, Game.MAX_SIZE, BOARD_SIZE);
+        boardSlider.setMajorTickUnit(19);
+        boardSlider.setMinorTickCount(0);
+        boardSlider.setShowTickLabels(true);
+        boardSlider.setShowTickMarks(true);
+        boardSlider.setMaxWidth(250);
+        settingsBox.getChildren().add(boardSlider);
+
+        //Listener for the board size slider
+        boardSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+            BOARD_SIZE = newValue.intValue();
+            boardSize.setText("Challenge Board: " + BOARD_SIZE + "x" + BOARD_SIZE);
+        });
     }
 
     @Override
@@ -1,20 +1,42 @@
 package uk.ac.soton.comp1206.ui;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleListProperty;
+import javafx.event.Event;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
+import uk.ac.soton.comp1206.component.MetricsOverlay;
 import uk.ac.soton.comp1206.game.Game;
+import uk.ac.soton.comp1206.game.GameSnapshot;
+import uk.ac.soton.comp1206.game.HintEngine;
+import uk.ac.soton.comp1206.game.ReplayLog;
+import uk.ac.soton.comp1206.game.ScoreCache;
+import uk.ac.soton.comp1206.game.ScoreStore;
+import uk.ac.soton.comp1206.metrics.FrameMonitor;
+import uk.ac.soton.comp1206.metrics.Histogram;
+import uk.ac.soton.comp1206.metrics.Metrics;
+import uk.ac.soton.comp1206.metrics.StartupTimer;
 import uk.ac.soton.comp1206.network.Communicator;
 import uk.ac.soton.comp1206.scene.*;
 
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 /**
  * The GameWindow is the single window for the game where everything takes place. To move between screens in the game,
  * we simply change the scene.
@@ -26,6 +48,11 @@ public class GameWindow {
 
     private static final Logger logger = LogManager.getLogger(GameWindow.class);
 
+    /**
+     * Time from an input event until the UI thread has handled it, including the repaints it caused
+     */
+    private static final Histogram inputLatency = Metrics.histogram("input.latency");
+
     private final int width;
     private final int height;
 
@@ -36,6 +63,17 @@ public class GameWindow {
 
     final Communicator communicator;
 
+    final ScoreCache scoreCache;
+
+    final HintEngine hintEngine = new HintEngine();
+
+    private final MetricsOverlay metricsOverlay = new MetricsOverlay();
+
+    /**
+     * Scenes that hold no game state, built once and shown again each time, by type
+     */
+    private final Map<Class<? extends BaseScene>, BaseScene> scenes = new HashMap<>();
+
     /**
      * Create a new GameWindow attached to the given stage with the specified width and height
      *
@@ -52,34 +90,64 @@ public class GameWindow {
         //Setup window
         setupStage();
 
-        //Setup resources
-        setupResources();
-
         //Setup default scene
         setupDefaultScene();
 
+        //Start loading resources in the background
+        var resources = new ResourceLoader();
+        var loading = resources.load();
+
         //Setup communicator
         communicator = new Communicator("ws://discord.ecs.soton.ac.uk:9700");
 
-        //Go to menu
-        startMenu();
+        //Setup score cache shared by all scenes
+        scoreCache = new ScoreCache(communicator, new ScoreStore(new File("scores.txt"), ScoreCache.SCORES));
+        scoreCache.loadLocalScores();
+
+        //Keep a copy of the metrics on disk
+        Metrics.startDump(new File("metrics.txt"), 30);
+        FrameMonitor.start();
+
+        //Show progress until resources are ready
+        loadScene(new LoadingScene(this, resources.progressProperty()));
+
+        //Go to menu once everything is loaded, then build the other stateless scenes while the menu is showing
+        loading.thenRun(() -> Platform.runLater(() -> {
+            startMenu();
+            preloadScenes();
+            //Measured once the menu has been shown and initialised
+            Platform.runLater(() -> {
+                StartupTimer.menuReady();
+                if (StartupTimer.TRAINING) {
+                    train();
+                }
+            });
+        }));
     }
 
     /**
-     * Setup the font and any other resources we need
+     * Goes through the startup path the archive should cover: a challenge, a placement, and back to the menu.
+     * Then exits so the class-data-sharing archive is written
      */
-    private void setupResources() {
-        logger.info("Loading resources");
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Regular.ttf"), 32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Bold.ttf"), 32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-ExtraBold.ttf"), 32);
+    private void train() {
+        logger.info("Training run for the class-data-sharing archive");
+        startChallenge();
+        var steps = new Timeline(
+                new KeyFrame(Duration.seconds(1), e -> {
+                    if (currentScene instanceof ChallengeScene challenge) {
+                        challenge.playBotMove();
+                    }
+                }),
+                new KeyFrame(Duration.seconds(2), e -> startMenu()),
+                new KeyFrame(Duration.seconds(3), e -> App.getInstance().shutdown()));
+        steps.play();
     }
 
     /**
      * Display the main menu
      */
     public void startMenu() {
-        loadScene(new MenuScene(this));
+        loadScene(cached(MenuScene.class, MenuScene::new));
     }
 
     /**
@@ -89,12 +157,66 @@ public class GameWindow {
         loadScene(new ChallengeScene(this));
     }
 
+    /**
+     * Carry on a saved single player game
+     *
+     * @param snapshot saved game
+     */
+    public void resumeGame(GameSnapshot snapshot) {
+        loadScene(new ChallengeScene(this, snapshot));
+    }
+
+    /**
+     * Display a single player practice game, where placements can be undone
+     */
+    public void startPractice() {
+        loadScene(new ChallengeScene(this, true));
+    }
+
+    /**
+     * Play back a recorded single player game
+     *
+     * @param replay recorded game
+     */
+    public void startReplay(ReplayLog replay) {
+        loadScene(new ChallengeScene(this, replay));
+    }
+
     public void startInstructions() {
-        loadScene(new InstructionScene(this));
+        loadScene(cached(InstructionScene.class, InstructionScene::new));
     }
 
     public void startSettings() {
-        loadScene(new SettingsScene(this));
+        loadScene(cached(SettingsScene.class, SettingsScene::new));
+    }
+
+    /**
+     * Get the one instance of a stateless scene, creating it the first time
+     *
+     * @param type    scene class
+     * @param factory creates the scene
+     * @return scene
+     */
+    private <T extends BaseScene> T cached(Class<T> type, Function<GameWindow, T> factory) {
+        return type.cast(scenes.computeIfAbsent(type, key -> factory.apply(this)));
+    }
+
+    /**
+     * Builds the settings and instructions scenes ahead of time, one per pulse so the menu stays responsive.
+     * Scene graphs with animations have to be built on the FX thread, so this runs after the menu is shown
+     */
+    private void preloadScenes() {
+        for (var scene : List.of(cached(SettingsScene.class, SettingsScene::new),
+                cached(InstructionScene.class, InstructionScene::new))) {
+            Platform.runLater(() -> {
+                if (!scene.isBuilt()) {
+                    long start = System.nanoTime();
+                    scene.build();
+                    setupMetrics(scene.setScene());
+                    Metrics.histogram("scene.preload." + scene.getClass().getSimpleName()).recordSince(start);
+                }
+            });
+        }
     }
 
     public void startScores(Game game) {
@@ -118,7 +240,12 @@ public class GameWindow {
         stage.setTitle("TetrECS");
         stage.setMinWidth(width);
         stage.setMinHeight(height + 20);
-        stage.setOnCloseRequest(ev -> App.getInstance().shutdown());
+        stage.setOnCloseRequest(ev -> {
+            if (currentScene instanceof ChallengeScene challenge) {
+                challenge.saveGame();
+            }
+            App.getInstance().shutdown();
+        });
     }
 
     /**
@@ -130,16 +257,65 @@ public class GameWindow {
         //Cleanup remains of the previous scene
         cleanup();
 
-        //Create the new scene and set it up
-        newScene.build();
+        //Create the new scene and set it up, unless it is a cached scene that is already built
+        long start = System.nanoTime();
         currentScene = newScene;
-        scene = newScene.setScene();
+        if (newScene.isBuilt()) {
+            scene = newScene.getScene();
+            Metrics.histogram("scene.reuse." + newScene.getClass().getSimpleName()).recordSince(start);
+        } else {
+            newScene.build();
+            FrameMonitor.end(newScene.getClass().getSimpleName() + ".build", start);
+            scene = newScene.setScene();
+            Metrics.histogram("scene.build." + newScene.getClass().getSimpleName()).recordSince(start);
+            setupMetrics(scene);
+        }
+        attachOverlay(scene);
         stage.setScene(scene);
 
         //Initialise the scene when ready
         Platform.runLater(() -> currentScene.initialise());
     }
 
+    /**
+     * Times input on the scene, lets F3 show the metrics overlay on top of it and F4 export recent frame times
+     *
+     * @param scene
+     */
+    private void setupMetrics(Scene scene) {
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.F3) {
+                metricsOverlay.toggle();
+            } else if (e.getCode() == KeyCode.F4) {
+                FrameMonitor.exportCsv(new File("frames.csv"));
+            }
+            timeInput(e);
+        });
+        scene.addEventFilter(MouseEvent.MOUSE_PRESSED, this::timeInput);
+    }
+
+    /**
+     * Moves the metrics overlay on top of a scene
+     *
+     * @param scene
+     */
+    private void attachOverlay(Scene scene) {
+        if (scene.getRoot() instanceof Pane root) {
+            root.getChildren().remove(metricsOverlay);
+            root.getChildren().add(metricsOverlay);
+        }
+    }
+
+    /**
+     * Records how long the UI thread takes to finish handling an input event
+     *
+     * @param event
+     */
+    private void timeInput(Event event) {
+        long start = System.nanoTime();
+        Platform.runLater(() -> inputLatency.recordSince(start));
+    }
+
     /**
      * Setup the default scene (an empty black scene) when no scene is loaded
      */
@@ -154,6 +330,7 @@ public class GameWindow {
     public void cleanup() {
         logger.info("Clearing up previous scene");
         communicator.clearListeners();
+        communicator.addListener(scoreCache::receiveCommunication);
     }
 
     /**
@@ -192,6 +369,24 @@ public class GameWindow {
         return communicator;
     }
 
+    /**
+     * Get the score cache
+     *
+     * @return score cache
+     */
+    public ScoreCache getScoreCache() {
+        return scoreCache;
+    }
+
+    /**
+     * Get the hint engine
+     *
+     * @return hint engine
+     */
+    public HintEngine getHintEngine() {
+        return hintEngine;
+    }
+
     public Stage getStage() {
         return this.stage;
     }
@@ -0,0 +1,122 @@
+package uk.ac.soton.comp1206.ui;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.image.Image;
+import javafx.scene.text.Font;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.Multimedia;
+import uk.ac.soton.comp1206.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ResourceLoader warms up the game's fonts, images and audio in parallel at startup, so nothing stalls the
+ * first time it is used.
+ * <p>
+ * Each resource is loaded by its own task on a small worker pool. Progress is reported on the FX thread for the
+ * loading screen. A resource that fails to load is logged and skipped, and is loaded again when first used.
+ */
+public class ResourceLoader {
+
+    private static final Logger logger = LogManager.getLogger(ResourceLoader.class);
+
+    private static final List<String> FONTS = List.of("Orbitron-Regular.ttf", "Orbitron-Bold.ttf",
+            "Orbitron-ExtraBold.ttf");
+
+    private static final List<String> IMAGES = List.of("logo2.png", "Instructions1.png", "ECSGames.png",
+            "backgroundpixel2.jpg", "backgroundpixel3.jpg");
+
+    /**
+     * Decoded images by name
+     */
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    private final SimpleDoubleProperty progress = new SimpleDoubleProperty(0);
+
+    /**
+     * Create a new loader with a pool sized to the machine
+     */
+    public ResourceLoader() {
+        executor = Executors.newFixedThreadPool(Math.min(4, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "ResourceLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get an image from /images, decoding it if it was not preloaded
+     *
+     * @param name file name
+     * @return image
+     */
+    public static Image image(String name) {
+        return images.computeIfAbsent(name,
+                key -> new Image(ResourceLoader.class.getResource("/images/" + key).toExternalForm()));
+    }
+
+    /**
+     * Starts loading everything
+     *
+     * @return completes when every resource has loaded or failed
+     */
+    public CompletableFuture<Void> load() {
+        long start = System.nanoTime();
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+        for (var font : FONTS) {
+            tasks.add(run("font " + font, () -> Font.loadFont(getClass().getResourceAsStream("/style/" + font), 32)));
+        }
+        for (var name : IMAGES) {
+            tasks.add(run("image " + name, () -> image(name)));
+        }
+        tasks.addAll(Multimedia.preload(executor));
+
+        var done = new AtomicInteger();
+        for (var task : tasks) {
+            task.thenRun(() -> {
+                double fraction = (double) done.incrementAndGet() / tasks.size();
+                Platform.runLater(() -> progress.set(fraction));
+            });
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            Metrics.histogram("startup.resources").recordSince(start);
+            logger.info("Loaded {} resources in {}ms", tasks.size(), (System.nanoTime() - start) / 1_000_000);
+            executor.shutdown();
+        });
+    }
+
+    /**
+     * Runs one load on the pool, logging rather than failing if it goes wrong
+     *
+     * @param name what is being loaded
+     * @param load the load
+     * @return completes when done
+     */
+    private CompletableFuture<Void> run(String name, Runnable load) {
+        return CompletableFuture.runAsync(load, executor).exceptionally(e -> {
+            logger.warn("Unable to preload {}: {}", name, e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Get the fraction of resources loaded, updated on the FX thread
+     *
+     * @return progress from 0 to 1
+     */
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress;
+    }
+}
@@ -0,0 +1,94 @@
+package uk.ac.soton.comp1206.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSnapshotTest {
+
+    @TempDir
+    File directory;
+
+    /**
+     * A 5x5 game, so the last packed byte only holds one cell, using every piece value
+     */
+    private static GameSnapshot snapshot() {
+        var cells = new byte[25];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) (i % 16);
+        }
+        return new GameSnapshot(5, 5, true, cells, 14, 3, 0, 1, 123456, 7, 2, 4, 11999);
+    }
+
+    private static void assertSame(GameSnapshot expected, GameSnapshot actual) {
+        assertEquals(expected.cols(), actual.cols());
+        assertEquals(expected.rows(), actual.rows());
+        assertEquals(expected.practice(), actual.practice());
+        assertArrayEquals(expected.cells(), actual.cells());
+        assertEquals(expected.current(), actual.current());
+        assertEquals(expected.currentRotation(), actual.currentRotation());
+        assertEquals(expected.following(), actual.following());
+        assertEquals(expected.followingRotation(), actual.followingRotation());
+        assertEquals(expected.score(), actual.score());
+        assertEquals(expected.level(), actual.level());
+        assertEquals(expected.lives(), actual.lives());
+        assertEquals(expected.multiplier(), actual.multiplier());
+        assertEquals(expected.timeLeft(), actual.timeLeft());
+    }
+
+    @Test
+    void snapshotSurvivesEncoding() throws IOException {
+        var snapshot = snapshot();
+        var buffer = snapshot.toBuffer();
+        assertEquals(8 + 13 + 24, buffer.remaining());
+
+        var decoded = GameSnapshot.fromBuffer(buffer);
+        assertSame(snapshot, decoded);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(snapshot.toBuffer(), decoded.toBuffer());
+    }
+
+    @Test
+    void saveReplacesEarlierSave() throws IOException {
+        var file = new File(directory, "game.sav");
+        var cells = new byte[200];
+        var first = new GameSnapshot(10, 20, false, cells, 1, 0, 2, 0, 0, 0, 3, 1, 12000);
+        first.save(file);
+        snapshot().save(file);
+
+        assertSame(snapshot(), GameSnapshot.load(file));
+        assertFalse(new File(directory, "game.sav.tmp").exists());
+    }
+
+    @Test
+    void cutShortSnapshotIsRejected() throws IOException {
+        var bytes = new byte[snapshot().toBuffer().remaining()];
+        snapshot().toBuffer().get(bytes);
+        var file = new File(directory, "cut.sav");
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+
+        var error = assertThrows(IOException.class, () -> GameSnapshot.load(file));
+        assertTrue(error.getMessage().contains("wrong length"), error.getMessage());
+        assertThrows(IOException.class, () -> GameSnapshot.fromBuffer(ByteBuffer.wrap(bytes, 0, 5)));
+    }
+
+    @Test
+    void otherFilesAreRejected() {
+        var buffer = snapshot().toBuffer();
+        buffer.put(4, (byte) 2);
+        var error = assertThrows(IOException.class, () -> GameSnapshot.fromBuffer(buffer));
+        assertEquals("Not a saved game", error.getMessage());
+        assertThrows(IOException.class, () -> GameSnapshot.fromBuffer(ByteBuffer.wrap("PK\3\4 not a game".getBytes())));
+    }
+}
@@ -0,0 +1,111 @@
+package uk.ac.soton.comp1206.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayLogTest {
+
+    @TempDir
+    File directory;
+
+    /**
+     * Lists the events of a log, with their ticks
+     */
+    private static List<String> events(ReplayLog log) {
+        var events = new ArrayList<String>();
+        log.forEach(new ReplayLog.Handler() {
+            @Override
+            public void place(long tick, int x, int y) {
+                events.add(tick + " place " + x + "," + y);
+            }
+
+            @Override
+            public void rotate(long tick, int amount) {
+                events.add(tick + " rotate " + amount);
+            }
+
+            @Override
+            public void swap(long tick) {
+                events.add(tick + " swap");
+            }
+
+            @Override
+            public void expire(long tick) {
+                events.add(tick + " expire");
+            }
+        });
+        return events;
+    }
+
+    private static ReplayLog game() throws InterruptedException {
+        var log = new ReplayLog(-1234567890123L, 100, 100);
+        log.start(new BagPieceGenerator());
+        log.place(0, 0);
+        log.rotate(3);
+        log.rotate(-1);
+        //Long enough that the time takes more than one varint byte
+        Thread.sleep(200);
+        log.swap();
+        log.place(99, 99);
+        log.expire();
+        return log;
+    }
+
+    @Test
+    void eventsSurviveEncoding() throws Exception {
+        var log = game();
+        var decoded = ReplayLog.fromBytes(log.toBytes());
+
+        assertEquals(-1234567890123L, decoded.getSeed());
+        assertEquals(100, decoded.getCols());
+        assertEquals(100, decoded.getRows());
+        assertInstanceOf(BagPieceGenerator.class, decoded.createGenerator());
+        assertEquals(events(log), events(decoded));
+        assertArrayEquals(log.toBytes(), decoded.toBytes());
+
+        var kinds = events(decoded).stream().map(event -> event.substring(event.indexOf(' ') + 1)).toList();
+        assertEquals(List.of("place 0,0", "rotate 3", "rotate 3", "swap", "place 99,99", "expire"), kinds);
+        long swapTick = Long.parseLong(events(decoded).get(3).split(" ")[0]);
+        assertTrue(swapTick >= 200, "tick was " + swapTick);
+    }
+
+    @Test
+    void emptyLogSavesAndLoads() throws IOException {
+        var log = new ReplayLog(7, 5, 5);
+        log.start(new UniformPieceGenerator());
+        assertTrue(log.isEmpty());
+
+        var loaded = ReplayLog.load(log.save(directory));
+        assertTrue(loaded.isEmpty());
+        assertEquals(7, loaded.getSeed());
+    }
+
+    @Test
+    void cutShortLogIsRejected() throws Exception {
+        var bytes = game().toBytes();
+        //Drops the two byte expire and the last byte of the place before it, which has a two byte block index
+        var cut = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThrows(IOException.class, () -> ReplayLog.fromBytes(cut));
+        assertThrows(IOException.class, () -> ReplayLog.fromBytes(Arrays.copyOf(bytes, 10)));
+    }
+
+    @Test
+    void otherFilesAreRejected() {
+        var bytes = new byte[32];
+        bytes[0] = 'P';
+        bytes[1] = 'K';
+        assertThrows(IOException.class, () -> ReplayLog.fromBytes(bytes));
+    }
+}
@@ -0,0 +1,107 @@
+package uk.ac.soton.comp1206.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreJournalTest {
+
+    /**
+     * Offset of the first record: magic and generation
+     */
+    private static final int HEADER = Integer.BYTES + Long.BYTES;
+
+    @TempDir
+    File directory;
+
+    private record Entry(String name, int score) {
+    }
+
+    private static List<Entry> replay(ScoreJournal journal) {
+        var entries = new ArrayList<Entry>();
+        journal.replay((name, score) -> entries.add(new Entry(name, score)));
+        return entries;
+    }
+
+    @Test
+    void recordsSurviveReopening() throws IOException {
+        var file = new File(directory, "scores.journal");
+        var journal = new ScoreJournal(file);
+        assertTrue(journal.append("alice", 1200));
+        assertTrue(journal.append("bob", 0));
+        assertTrue(journal.append("Zoë", Integer.MAX_VALUE));
+
+        var reopened = new ScoreJournal(file);
+        assertEquals(3, reopened.getRecords());
+        assertEquals(List.of(new Entry("alice", 1200), new Entry("bob", 0), new Entry("Zoë", Integer.MAX_VALUE)),
+                replay(reopened));
+    }
+
+    @Test
+    void resetEmptiesAndKeepsGeneration() throws IOException {
+        var file = new File(directory, "scores.journal");
+        var journal = new ScoreJournal(file);
+        journal.append("alice", 10);
+        journal.reset(7);
+
+        var reopened = new ScoreJournal(file);
+        assertEquals(7, reopened.getGeneration());
+        assertEquals(0, reopened.getRecords());
+    }
+
+    @Test
+    void longNamesAreCutOnACharacterBoundary() throws IOException {
+        var file = new File(directory, "scores.journal");
+        //Three bytes each, so 256 bytes falls part way through one
+        var name = "€".repeat(100);
+        new ScoreJournal(file).append(name, 5);
+
+        var stored = replay(new ScoreJournal(file)).get(0).name();
+        assertEquals("€".repeat(85), stored);
+        assertFalse(stored.contains("�"));
+    }
+
+    @Test
+    void damagedRecordEndsTheJournal() throws IOException {
+        var file = new File(directory, "scores.journal");
+        var journal = new ScoreJournal(file);
+        journal.append("alice", 1);
+        journal.append("bob", 2);
+        journal.append("carol", 3);
+
+        //Flip a byte of bob's name, as a write torn by a crash would leave it
+        int bob = HEADER + Integer.BYTES + Integer.BYTES + "alice".length() + Integer.BYTES;
+        try (var raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(bob + 2 * Integer.BYTES);
+            raw.write('X');
+        }
+
+        var reopened = new ScoreJournal(file);
+        assertEquals(List.of(new Entry("alice", 1)), replay(reopened));
+
+        //New records go after the last good one
+        reopened.append("dave", 4);
+        assertEquals(List.of(new Entry("alice", 1), new Entry("dave", 4)), replay(new ScoreJournal(file)));
+    }
+
+    @Test
+    void garbageIsNotAJournal() throws IOException {
+        var file = new File(directory, "scores.journal");
+        try (var raw = new RandomAccessFile(file, "rw")) {
+            raw.write("not a journal".getBytes(StandardCharsets.UTF_8));
+        }
+        var journal = new ScoreJournal(file);
+        assertEquals(0, journal.getRecords());
+        assertEquals(0, journal.getGeneration());
+    }
+}